@@ -3,44 +3,189 @@ package com.hugoof06.pokedex.cache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hugoof06.pokedex.model.Pokemon;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
 
-public class FilePokemonCache {
+/**
+ * Caché en disco de Pokémon en un único fichero append-only (~/.pokedex/cache/pokemon.log).
+ *
+ * Cada put añade un registro [longitud][id][crc32][json] al final del log y actualiza un índice
+ * en memoria id -> offset. Ese índice se vuelca de vez en cuando a pokemon.idx para no tener que
+ * recorrer todo el log al arrancar: se carga el .idx y solo se reproduce la cola del log escrita
+ * después. Un registro a medias (corte en plena escritura) no pasa el CRC y se trunca.
+ * Cuando las versiones antiguas ocupan más que las vivas, se compacta en segundo plano.
+ *
+ * Las escrituras son write-behind: put solo deja el Pokémon en una cola y un hilo en segundo plano
+ * las escribe por lotes, saltándose las que tienen el mismo contenido (mismo CRC) que lo ya guardado.
+ * Lo pendiente se ve en getById desde el primer momento y se vuelca en flush() o close(): quien crea
+ * la caché tiene que cerrarla al terminar. Tras close() ya no hay hilo de fondo y cada put se escribe
+ * en el hilo que llama.
+ */
+public class FilePokemonCache implements AutoCloseable {
+
+    private static final int HEADER_BYTES = 12;          // longitud + id + crc
+    private static final int INDEX_MAGIC = 0x50445831;  // "PDX1"
+    private static final int INDEX_EVERY_PUTS = 64;
+    private static final long COMPACT_MIN_BYTES = 256 * 1024;
 
     private final ObjectMapper mapper = new ObjectMapper();
     private final Path cacheDir;
+    private final Path logFile;
+    private final Path indexFile;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Long> offsets = new HashMap<>();
+    private FileChannel log;
+    private long logSize;
+    private long liveBytes;
+    private int putsSinceIndex;
+
+    // escrituras pendientes (write-behind): la última versión de cada id que aún no está en el log
+    private final Map<Integer, Pokemon> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private long skippedWrites;
+
+    // un único hilo de fondo para escribir lotes y compactar
+    private final ExecutorService background = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "pokedex-cache-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private boolean compactionScheduled;
 
     public FilePokemonCache() {
-        String home = System.getProperty("user.home");
-        this.cacheDir = Path.of(home, ".pokedex", "cache");
+        this(Path.of(System.getProperty("user.home"), ".pokedex", "cache"));
     }
 
-    private Path fileForId(int id) {
-        return cacheDir.resolve("pokemon_" + id + ".json");
+    public FilePokemonCache(Path cacheDir) {
+        this.cacheDir = cacheDir;
+        this.logFile = cacheDir.resolve("pokemon.log");
+        this.indexFile = cacheDir.resolve("pokemon.idx");
     }
 
     public Optional<Pokemon> getById(int id) {
+        Pokemon queued = pending.get(id);
+        if (queued != null) return Optional.of(queued);
+
+        byte[] json;
         try {
-            Path f = fileForId(id);
-            if (!Files.exists(f)) return Optional.empty();
-            return Optional.of(mapper.readValue(f.toFile(), Pokemon.class));
+            json = reading(() -> {
+                if (!ensureOpen()) return null;
+                Long offset = offsets.get(id);
+                return offset == null ? null : readPayload(offset, id);
+            });
+        } catch (IOException e) {
+            // Si el registro está corrupto, mejor ignorar y tratarlo como "no cacheado"
+            return Optional.empty();
+        }
+        if (json == null) return Optional.empty();
+
+        try {
+            return Optional.of(mapper.readValue(json, Pokemon.class));
         } catch (IOException e) {
-            // Si el archivo está corrupto, mejor ignorar y tratarlo como "no cacheado"
             return Optional.empty();
         }
     }
 
-    public void put(Pokemon p) {
+    /**
+     * Varios ids de una vez: un solo bloqueo de lectura y los registros leídos en orden de offset
+     * (lectura secuencial del log). Devuelve solo los que están cacheados.
+     */
+    public Map<Integer, Pokemon> getByIds(Collection<Integer> ids) {
+        Map<Integer, Pokemon> found = new HashMap<>();
+        for (int id : ids) {
+            Pokemon queued = pending.get(id);
+            if (queued != null) found.put(id, queued);
+        }
+
+        Map<Integer, byte[]> payloads;
         try {
-            Files.createDirectories(cacheDir);
-            Path f = fileForId(p.getId());
-            mapper.writerWithDefaultPrettyPrinter().writeValue(f.toFile(), p);
+            payloads = reading(() -> {
+                Map<Integer, byte[]> read = new HashMap<>();
+                if (!ensureOpen()) return read;
+                List<long[]> toRead = new ArrayList<>(); // {offset, id}
+                for (int id : ids) {
+                    Long offset = offsets.get(id);
+                    if (offset != null && !found.containsKey(id)) toRead.add(new long[]{offset, id});
+                }
+                toRead.sort(Comparator.comparingLong(r -> r[0]));
+                for (long[] r : toRead) {
+                    try {
+                        read.put((int) r[1], readPayload(r[0], (int) r[1]));
+                    } catch (ClosedChannelException e) {
+                        throw e;
+                    } catch (IOException e) {
+                        // registro corrupto: se trata como "no cacheado"
+                    }
+                }
+                return read;
+            });
         } catch (IOException e) {
-            // Caché es best-effort: si falla, no rompemos la app
+            return found;
+        }
+
+        for (Map.Entry<Integer, byte[]> e : payloads.entrySet()) {
+            try {
+                found.put(e.getKey(), mapper.readValue(e.getValue(), Pokemon.class));
+            } catch (IOException ex) {
+                // igual que en getById
+            }
+        }
+        return found;
+    }
+
+    /** Encola el Pokémon para escribirlo en segundo plano; no toca el disco en el hilo que llama. */
+    public void put(Pokemon p) {
+        pending.put(p.getId(), p);
+        if (background.isShutdown()) {
+            drainPending(); // cerrada: sin write-behind
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                background.execute(this::drainPending);
+            } catch (RejectedExecutionException e) {
+                drainPending(); // se ha cerrado justo ahora
+            }
+        }
+    }
+
+    /** Escribe ya todo lo pendiente (en el hilo que llama). */
+    public void flush() {
+        drainPending();
+    }
+
+    /** Escrituras descartadas porque el contenido era idéntico al ya guardado. */
+    public long skippedWrites() {
+        lock.readLock().lock();
+        try {
+            return skippedWrites;
+        } finally {
+            lock.readLock().unlock();
         }
     }
 
@@ -49,30 +194,396 @@ public class FilePokemonCache {
     }
 
     public int countCachedPokemons() {
-        if (!Files.exists(cacheDir)) return 0;
-
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, "pokemon_*.json")) {
-            int count = 0;
-            for (Path ignored : stream) count++;
+        lock.readLock().lock();
+        try {
+            if (!ensureOpen()) return pending.size();
+            int count = offsets.size();
+            for (Integer id : pending.keySet()) {
+                if (!offsets.containsKey(id)) count++;
+            }
             return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int clear() {
+        lock.writeLock().lock();
+        try {
+            int removed = countCachedPokemons();
+            pending.clear();
+            if (!ensureOpen()) return removed;
+            offsets.clear();
+            log.truncate(0);
+            logSize = 0;
+            liveBytes = 0;
+            putsSinceIndex = 0;
+            writeIndex();
+            return removed;
+        } catch (IOException e) {
+            return 0; // best-effort
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Para el hilo de fondo (dejando acabar la compactación si había una en marcha), escribe lo pendiente,
+     * vuelca el índice y cierra el log. El siguiente uso lo vuelve a abrir, ya sin write-behind.
+     */
+    @Override
+    public void close() {
+        background.shutdown();
+        try {
+            background.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainPending();
+        lock.writeLock().lock();
+        try {
+            if (log == null) return;
+            writeIndex();
+            log.close();
+        } catch (IOException e) {
+            // best-effort
+        } finally {
+            log = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ----------------- Internals -----------------
+
+    /** Escribe en un solo lote todo lo que haya en la cola, con el lock tomado una vez. */
+    private void drainPending() {
+        flushScheduled.set(false);
+        if (pending.isEmpty()) return;
+
+        lock.writeLock().lock();
+        try {
+            if (!ensureOpen()) return;
+            for (Map.Entry<Integer, Pokemon> e : pending.entrySet()) {
+                Pokemon p = e.getValue();
+                byte[] json = mapper.writeValueAsBytes(p);
+                int crc = crc32(json);
+
+                Long offset = offsets.get(p.getId());
+                if (offset != null && sameAsStored(offset, json.length, crc)) {
+                    skippedWrites++;
+                } else {
+                    append(p.getId(), json, crc);
+                    putsSinceIndex++;
+                }
+                // solo la quitamos si nadie la ha reemplazado mientras tanto
+                // (por referencia: Pokemon.equals solo compara el id)
+                pending.computeIfPresent(e.getKey(), (id, current) -> current == p ? null : current);
+            }
+            if (putsSinceIndex >= INDEX_EVERY_PUTS) writeIndex();
+            maybeScheduleCompaction();
+        } catch (IOException e) {
+            // Caché es best-effort: si falla, no rompemos la app
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private interface LogRead<T> {
+        T read() throws IOException;
+    }
+
+    /**
+     * Ejecuta una lectura con el lock de lectura. El FileChannel es compartido y si se interrumpe a un hilo
+     * en plena lectura se cierra para todos (ClosedByInterruptException / AsynchronousCloseException):
+     * en ese caso se repite una vez, y ensureOpen lo reabre. No se repite en el hilo interrumpido,
+     * que volvería a cerrarlo.
+     */
+    private <T> T reading(LogRead<T> read) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            lock.readLock().lock();
+            try {
+                return read.read();
+            } catch (ClosedChannelException e) {
+                if (attempt > 0 || Thread.currentThread().isInterrupted()) throw e;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Abre el log la primera vez, o de nuevo si un interrupt lo ha cerrado. Se llama con el lock tomado;
+     * si es el de lectura y hay que abrir, el doble chequeo con el de escritura evita abrir dos veces.
+     */
+    private boolean ensureOpen() {
+        if (log != null && log.isOpen()) return true;
+
+        boolean reading = lock.getReadHoldCount() > 0;
+        if (reading) {
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+        }
+        try {
+            if (log == null || !log.isOpen()) open();
+            return true;
         } catch (IOException e) {
+            return false;
+        } finally {
+            if (reading) {
+                lock.readLock().lock();
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(cacheDir);
+        boolean fresh = !Files.exists(logFile);
+        log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        offsets.clear();
+        long replayFrom = readIndex();
+        if (!replay(replayFrom)) {
+            // la cola no cuadra con el índice: no es de este log, se reconstruye recorriéndolo entero
+            offsets.clear();
+            replay(0);
+        }
+
+        if (fresh) importLegacyFiles();
+    }
+
+    /** Carga pokemon.idx; devuelve hasta qué byte del log cubre (0 si no hay índice válido). */
+    private long readIndex() {
+        if (!Files.exists(indexFile)) return 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC) return 0;
+            long covered = in.readLong();
+            long live = in.readLong();
+            int count = in.readInt();
+            if (covered > log.size() || count < 0) return 0; // el log es más corto que lo que dice el índice
+
+            Map<Integer, Long> loaded = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                long offset = in.readLong();
+                if (offset < 0 || offset + HEADER_BYTES > covered) return 0;
+                loaded.put(id, offset);
+            }
+            offsets.putAll(loaded);
+            liveBytes = live;
+            return covered;
+        } catch (IOException e) {
+            offsets.clear();
+            liveBytes = 0;
             return 0;
         }
     }
 
-    public int clear() {
-        if (!Files.exists(cacheDir)) return 0;
+    /**
+     * Recorre el log desde {@code from} actualizando el índice. Desde 0 trunca en el primer registro roto
+     * (escritura interrumpida). Desde el offset de un índice, un registro roto justo ahí significa que
+     * el índice no corresponde a este log: devuelve false sin tocar nada.
+     */
+    private boolean replay(long from) throws IOException {
+        if (from == 0) liveBytes = 0;
 
-        int removed = 0;
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, "pokemon_*.json")) {
-            for (Path p : stream) {
-                Files.deleteIfExists(p);
-                removed++;
+        long size = log.size();
+        logSize = size; // checkedLength de los registros ya vistos (track) mira hasta aquí
+        long pos = from;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+
+        while (pos + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, pos);
+            header.flip();
+            int len = header.getInt();
+            int id = header.getInt();
+            int crc = header.getInt();
+            if (len <= 0 || pos + HEADER_BYTES + len > size) break;
+
+            ByteBuffer payload = ByteBuffer.allocate(len);
+            readFully(payload, pos + HEADER_BYTES);
+            if (crc32(payload.array()) != crc) break;
+
+            track(id, pos, HEADER_BYTES + len);
+            pos += HEADER_BYTES + len;
+        }
+
+        if (pos == from && pos < size && from > 0) return false;
+        if (pos < size) log.truncate(pos); // cola incompleta de una escritura interrumpida
+        logSize = pos;
+        return true;
+    }
+
+    private void append(int id, byte[] json, int crc) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + json.length);
+        buf.putInt(json.length).putInt(id).putInt(crc).put(json);
+        buf.flip();
+
+        long pos = logSize;
+        while (buf.hasRemaining()) {
+            pos += log.write(buf, pos);
+        }
+        track(id, logSize, HEADER_BYTES + json.length);
+        logSize = pos;
+    }
+
+    private void track(int id, long offset, int recordBytes) throws IOException {
+        Long old = offsets.put(id, offset);
+        if (old != null) liveBytes -= recordLength(old);
+        liveBytes += recordBytes;
+    }
+
+    /** Huella del registro guardado (longitud + CRC de la cabecera) frente a la nueva. */
+    private boolean sameAsStored(long offset, int len, int crc) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, offset);
+        header.flip();
+        int storedLen = header.getInt();
+        header.getInt();
+        return storedLen == len && header.getInt() == crc;
+    }
+
+    private int recordLength(long offset) throws IOException {
+        ByteBuffer len = ByteBuffer.allocate(4);
+        readFully(len, offset);
+        len.flip();
+        return HEADER_BYTES + checkedLength(len.getInt(), offset);
+    }
+
+    /** Payload del registro en {@code offset}, que tiene que ser del Pokémon {@code id}. */
+    private byte[] readPayload(long offset, int id) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, offset);
+        header.flip();
+        int len = checkedLength(header.getInt(), offset);
+        if (header.getInt() != id) throw new IOException("Cache record at " + offset + " is not #" + id);
+        int crc = header.getInt();
+
+        ByteBuffer payload = ByteBuffer.allocate(len);
+        readFully(payload, offset + HEADER_BYTES);
+        if (crc32(payload.array()) != crc) throw new IOException("Corrupt cache record at " + offset);
+        return payload.array();
+    }
+
+    /** Una longitud leída de disco puede ser basura (offset desfasado): nunca más allá del final del log. */
+    private int checkedLength(int len, long offset) throws IOException {
+        if (len <= 0 || offset + HEADER_BYTES + len > logSize) {
+            throw new IOException("Bad cache record length " + len + " at " + offset);
+        }
+        return len;
+    }
+
+    private void readFully(ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = log.read(buf, pos);
+            if (n < 0) throw new IOException("Unexpected end of cache log");
+            pos += n;
+        }
+    }
+
+    /** Escribe pokemon.idx de forma atómica (fichero temporal + move). */
+    private void writeIndex() throws IOException {
+        log.force(false);
+
+        Path tmp = indexFile.resolveSibling("pokemon.idx.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeLong(logSize);
+            out.writeLong(liveBytes);
+            out.writeInt(offsets.size());
+            for (Map.Entry<Integer, Long> e : offsets.entrySet()) {
+                out.writeInt(e.getKey());
+                out.writeLong(e.getValue());
             }
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        putsSinceIndex = 0;
+    }
+
+    private void maybeScheduleCompaction() {
+        if (compactionScheduled || background.isShutdown()) return;
+        if (logSize < COMPACT_MIN_BYTES || logSize - liveBytes < liveBytes) return;
+
+        compactionScheduled = true;
+        try {
+            background.execute(this::compact);
+        } catch (RejectedExecutionException e) {
+            compactionScheduled = false; // cerrada: ya se compactará en otra sesión
+        }
+    }
+
+    /** Reescribe solo los registros vivos en un log nuevo y lo cambia por el actual. */
+    private void compact() {
+        lock.writeLock().lock();
+        try {
+            compactionScheduled = false;
+            if (log == null) return;
+
+            Path tmp = logFile.resolveSibling("pokemon.log.compact");
+            Map<Integer, Long> moved = new HashMap<>(offsets.size() * 2);
+            long pos = 0;
+
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (Map.Entry<Integer, Long> e : offsets.entrySet()) {
+                    int recordBytes = recordLength(e.getValue());
+                    ByteBuffer record = ByteBuffer.allocate(recordBytes);
+                    readFully(record, e.getValue());
+                    record.flip();
+
+                    moved.put(e.getKey(), pos);
+                    while (record.hasRemaining()) pos += out.write(record, pos);
+                }
+                out.force(true);
+            }
+
+            log.close();
+            // el índice viejo apunta a offsets del log viejo: fuera antes del cambio, por si se corta entre
+            // el move y writeIndex (sin índice, el siguiente arranque recorre el log nuevo entero)
+            Files.deleteIfExists(indexFile);
+            Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            offsets.clear();
+            offsets.putAll(moved);
+            logSize = pos;
+            liveBytes = pos;
+            writeIndex();
         } catch (IOException e) {
-            // best-effort
+            // best-effort: si falla, el siguiente uso reabre y reconstruye el índice recorriendo el log
+            try {
+                if (log != null) log.close();
+                Files.deleteIfExists(indexFile);
+            } catch (IOException ignored) {
+                // nada más que hacer
+            }
+            log = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Migra la caché antigua (un pokemon_<id>.json por Pokémon) al log y borra esos ficheros. */
+    private void importLegacyFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, "pokemon_*.json")) {
+            for (Path f : stream) {
+                try {
+                    Pokemon p = mapper.readValue(f.toFile(), Pokemon.class);
+                    byte[] json = mapper.writeValueAsBytes(p);
+                    append(p.getId(), json, crc32(json));
+                } catch (IOException e) {
+                    // fichero corrupto: se descarta
+                }
+                Files.deleteIfExists(f);
+            }
         }
-        return removed;
+        writeIndex();
     }
 
+    private static int crc32(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
 }
@@ -0,0 +1,173 @@
+package com.hugoof06.pokedex.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché HTTP persistente (~/.pokedex/http) para respuestas de la API, indexada por ruta.
+ * Guarda el cuerpo junto con sus validadores (ETag / Last-Modified) para poder revalidar
+ * con If-None-Match / If-Modified-Since: si el servidor responde 304 se reutiliza el JSON
+ * ya parseado en memoria sin volver a descargarlo ni parsearlo.
+ */
+public class HttpResponseCache {
+
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofHours(24);
+
+    /**
+     * Lo que se guarda en disco por cada ruta. Inmutable: revalidar crea otra entrada. En memoria se
+     * guarda sin {@code body} (una vez parseado basta con el JsonNode); el que viene de disco sí lo trae.
+     */
+    public record Entry(String path, String etag, String lastModified, long storedAt, String body) {
+
+        /**
+         * Versión del contenido, para lo que se derive de él (p.ej. el índice de nombres): el ETag, si no
+         * Last-Modified, y si no hay validadores el momento en que se descargó.
+         */
+        public String version() {
+            if (etag != null) return "etag:" + etag;
+            if (lastModified != null) return "modified:" + lastModified;
+            return "stored:" + storedAt;
+        }
+
+        Entry withoutBody() {
+            return body == null ? this : new Entry(path, etag, lastModified, storedAt, null);
+        }
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Path dir;
+    private final long maxAgeMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, JsonNode> parsed = new ConcurrentHashMap<>();
+
+    public HttpResponseCache() {
+        this(Path.of(System.getProperty("user.home"), ".pokedex", "http"), DEFAULT_MAX_AGE);
+    }
+
+    public HttpResponseCache(Path dir, Duration maxAge) {
+        this.dir = dir;
+        this.maxAgeMillis = maxAge.toMillis();
+    }
+
+    /** Entrada guardada para la ruta (memoria y, si no, disco). */
+    public Optional<Entry> get(String path) {
+        Entry e = entries.get(path);
+        if (e != null) return Optional.of(e);
+
+        Optional<Entry> stored = read(path);
+        stored.ifPresent(d -> entries.putIfAbsent(path, d.withoutBody()));
+        return stored;
+    }
+
+    /** true si la entrada es lo bastante reciente como para usarla sin preguntar al servidor. */
+    public boolean isFresh(Entry e) {
+        return System.currentTimeMillis() - e.storedAt() < maxAgeMillis;
+    }
+
+    /** El cuerpo de la entrada ya parseado (se parsea una sola vez por sesión). */
+    public JsonNode json(Entry e) throws IOException {
+        JsonNode node = parsed.get(e.path());
+        if (node != null) return node;
+
+        // la entrada de memoria ya no tiene el cuerpo: se vuelve a leer de disco
+        String body = e.body() != null ? e.body()
+                : read(e.path()).map(Entry::body).orElseThrow(() -> new IOException("No cached body for " + e.path()));
+        node = mapper.readTree(body);
+        parsed.put(e.path(), node);
+        return node;
+    }
+
+    /** Guarda una respuesta 200 con sus validadores y devuelve el JSON parseado. */
+    public JsonNode store(String path, String body, String etag, String lastModified) throws IOException {
+        JsonNode node = mapper.readTree(body);
+
+        Entry e = new Entry(path, etag, lastModified, System.currentTimeMillis(), body);
+        parsed.put(path, node);
+        entries.put(path, e.withoutBody());
+        write(e);
+        return node;
+    }
+
+    /** El servidor respondió 304: la entrada vuelve a estar fresca (otra entrada, con la hora de ahora). */
+    public void revalidated(Entry e) {
+        Entry fresh = new Entry(e.path(), e.etag(), e.lastModified(), System.currentTimeMillis(), null);
+        entries.put(e.path(), fresh);
+
+        // en disco va con el cuerpo, que en memoria ya no está
+        String body = e.body() != null ? e.body() : read(e.path()).map(Entry::body).orElse(null);
+        if (body != null) {
+            write(new Entry(fresh.path(), fresh.etag(), fresh.lastModified(), fresh.storedAt(), body));
+        }
+    }
+
+    public String location() {
+        return dir.toString();
+    }
+
+    public int clear() {
+        entries.clear();
+        parsed.clear();
+        if (!Files.exists(dir)) return 0;
+
+        int removed = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path p : stream) {
+                Files.deleteIfExists(p);
+                removed++;
+            }
+        } catch (IOException e) {
+            // best-effort
+        }
+        return removed;
+    }
+
+    private Optional<Entry> read(String path) {
+        try {
+            Path f = fileFor(path);
+            if (!Files.exists(f)) return Optional.empty();
+            Entry e = mapper.readValue(f.toFile(), Entry.class);
+            if (!path.equals(e.path()) || e.body() == null) return Optional.empty();
+            return Optional.of(e);
+        } catch (IOException ex) {
+            // Si el archivo está corrupto, lo tratamos como "no cacheado"
+            return Optional.empty();
+        }
+    }
+
+    /** Escribe la entrada de forma atómica (fichero temporal + move), como el resto de cachés en disco. */
+    private void write(Entry e) {
+        try {
+            Files.createDirectories(dir);
+            Path file = fileFor(e.path());
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                mapper.writeValue(tmp.toFile(), e);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException ex) {
+            // Caché es best-effort: si falla, no rompemos la app
+        }
+    }
+
+    private Path fileFor(String path) {
+        // "/generation/1/" -> nombre de archivo seguro y reversible
+        String name = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(path.getBytes(StandardCharsets.UTF_8));
+        return dir.resolve(name + ".json");
+    }
+}
@@ -0,0 +1,153 @@
+package com.hugoof06.pokedex.cache;
+
+import com.hugoof06.pokedex.model.Pokemon;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché en memoria (nivel 1) delante de {@link FilePokemonCache}.
+ * LRU acotado por número de entradas y por un tamaño aproximado en bytes,
+ * con contadores de aciertos, fallos y expulsiones.
+ */
+public class MemoryPokemonCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 2048;
+    public static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // ReentrantLock y no synchronized: se llega desde hilos virtuales
+    private final ReentrantLock lock = new ReentrantLock();
+    // accessOrder = true: cada get mueve la entrada al final, así la primera es siempre la menos usada
+    private final LinkedHashMap<Integer, Pokemon> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public MemoryPokemonCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    public MemoryPokemonCache(int maxEntries, long maxBytes) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = Math.max(1, maxBytes);
+    }
+
+    public Optional<Pokemon> getById(int id) {
+        lock.lock();
+        try {
+            Pokemon p = entries.get(id);
+            if (p == null) {
+                misses++;
+                return Optional.empty();
+            }
+            hits++;
+            return Optional.of(p);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Los ids que estén en memoria, con un solo bloqueo para todo el lote. */
+    public Map<Integer, Pokemon> getByIds(Collection<Integer> ids) {
+        lock.lock();
+        try {
+            Map<Integer, Pokemon> found = new HashMap<>();
+            for (int id : ids) {
+                Pokemon p = entries.get(id);
+                if (p == null) {
+                    misses++;
+                } else {
+                    hits++;
+                    found.put(id, p);
+                }
+            }
+            return found;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(Pokemon p) {
+        lock.lock();
+        try {
+            Pokemon old = entries.put(p.getId(), p);
+            if (old != null) bytes -= estimateBytes(old);
+            bytes += estimateBytes(p);
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int clear() {
+        lock.lock();
+        try {
+            int removed = entries.size();
+            entries.clear();
+            bytes = 0;
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(entries.size(), bytes, hits, misses, evictions);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record Stats(int entries, long bytes, long hits, long misses, long evictions) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("entries=%d bytes~%d hits=%d misses=%d evictions=%d hitRate=%.1f%%",
+                    entries, bytes, hits, misses, evictions, hitRate() * 100);
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Integer, Pokemon>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && it.hasNext()) {
+            Pokemon eldest = it.next().getValue();
+            it.remove();
+            bytes -= estimateBytes(eldest);
+            evictions++;
+        }
+    }
+
+    // Aproximación del peso en heap de un Pokemon (objeto + Stats + lista de tipos + Strings)
+    private static long estimateBytes(Pokemon p) {
+        long size = 48 + 40 + 32 + 8L * p.getTypes().size();
+        size += 40 + 2L * p.getName().length();
+        if (p.getSpriteUrl() != null) size += 40 + 2L * p.getSpriteUrl().length();
+        return size;
+    }
+}
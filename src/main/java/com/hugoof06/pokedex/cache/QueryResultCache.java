@@ -0,0 +1,137 @@
+package com.hugoof06.pokedex.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché en memoria de resultados de consultas (listados, tipos, búsquedas).
+ * No guarda Pokémon sino solo sus ids (o nombres, para las búsquedas): la página se reconstruye
+ * después desde la caché por id. Las entradas caducan tras un TTL configurable y, como cada texto de
+ * búsqueda es una clave distinta, como mucho hay {@code maxEntries}: al pasarse sale la menos usada (LRU).
+ */
+public class QueryResultCache {
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+    public static final int DEFAULT_MAX_ENTRIES = 512;
+
+    /** Ids de una página en orden, más el cursor de la siguiente (si la consulta era por cursor). */
+    public record IdPage(List<Integer> ids, int nextAfterId) {}
+
+    private record Entry(Object value, long storedAt) {}
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    // accessOrder = true: la primera es siempre la menos usada. ReentrantLock: se llega desde hilos virtuales
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public QueryResultCache() {
+        this(DEFAULT_TTL);
+    }
+
+    public QueryResultCache(Duration ttl) {
+        this(ttl, DEFAULT_MAX_ENTRIES);
+    }
+
+    public QueryResultCache(Duration ttl, int maxEntries) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    public Optional<IdPage> ids(String key) {
+        return lookup(key, IdPage.class);
+    }
+
+    public void putIds(String key, List<Integer> ids, int nextAfterId) {
+        store(key, new IdPage(List.copyOf(ids), nextAfterId));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<List<String>> names(String key) {
+        return lookup(key, List.class).map(l -> (List<String>) l);
+    }
+
+    public void putNames(String key, List<String> names) {
+        store(key, List.copyOf(names));
+    }
+
+    /** Olvida una consulta concreta (p.ej. si alguno de sus ids ya no está en la caché por id). */
+    public void invalidate(String key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int clear() {
+        lock.lock();
+        try {
+            int removed = entries.size();
+            entries.clear();
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    private void store(String key, Object value) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            entries.put(key, new Entry(value, now));
+            Iterator<String> eldest = entries.keySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> Optional<T> lookup(String key, Class<T> kind) {
+        Entry e;
+        lock.lock();
+        try {
+            e = entries.get(key);
+            if (e != null && System.currentTimeMillis() - e.storedAt() >= ttlMillis) {
+                entries.remove(key);
+                e = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (e == null || !kind.isInstance(e.value())) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(kind.cast(e.value()));
+    }
+}
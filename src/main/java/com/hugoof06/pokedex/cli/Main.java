@@ -1,47 +1,79 @@
 package com.hugoof06.pokedex.cli;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 import java.util.Comparator;
-import java.util.stream.Collectors;
 
 import com.hugoof06.pokedex.data.JsonPokemonRepository;
 //import com.hugoof06.pokedex.data.JsonPokemonRepository;
+import com.hugoof06.pokedex.data.MappedPokemonRepository;
 import com.hugoof06.pokedex.data.PokeApiPokemonRepository;
 import com.hugoof06.pokedex.data.PokemonRepository;
 import com.hugoof06.pokedex.model.Generation;
 import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stat;
 import com.hugoof06.pokedex.model.Type;
+import com.hugoof06.pokedex.service.PageCursors;
 import com.hugoof06.pokedex.service.PokedexService;
+import com.hugoof06.pokedex.service.PrefetchScheduler;
+import com.hugoof06.pokedex.service.TeamCoverage;
+import com.hugoof06.pokedex.service.TeamOptimizer;
 import com.hugoof06.pokedex.favorites.*;
 
 public class Main {
 
     public static void main(String[] args) {
         String source = "api"; // default
+        int prefetchBudget = PrefetchScheduler.DEFAULT_MAX_CONCURRENT;
         for (int i = 0; i < args.length; i++) {
             if (args[i].equalsIgnoreCase("--source") && i + 1 < args.length) {
                 source = args[i + 1].toLowerCase();
             }
+            // precargas en paralelo como mucho (0 = sin precarga)
+            if (args[i].equalsIgnoreCase("--prefetch") && i + 1 < args.length) {
+                try {
+                    prefetchBudget = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid --prefetch value, using " + prefetchBudget);
+                }
+            }
         }
 
         PokemonRepository sourceRepo;
         if (source.equals("json")) {
             sourceRepo = new JsonPokemonRepository();
             System.out.println("Source: JSON (local)");
+        } else if (source.equals("mapped")) {
+            sourceRepo = openMapped();
+            System.out.println("Source: mapped file (local)");
         } else {
             sourceRepo = new PokeApiPokemonRepository();
             System.out.println("Source: PokeAPI");
         }
 
-        var cache = new com.hugoof06.pokedex.cache.FilePokemonCache();
-        var repo = new com.hugoof06.pokedex.data.CachedPokemonRepository(sourceRepo, cache);
+        // las cachés solo tienen sentido delante de la API: JSON y mapped ya están en local, y envolver
+        // el mapped en cachés de Pokémon materializados deshace lo de no crecer el heap con el dataset
+        com.hugoof06.pokedex.cache.FilePokemonCache cache = null;
+        com.hugoof06.pokedex.data.CachedPokemonRepository cached = null;
+        if (sourceRepo instanceof PokeApiPokemonRepository) {
+            cache = new com.hugoof06.pokedex.cache.FilePokemonCache();
+            cached = new com.hugoof06.pokedex.data.CachedPokemonRepository(sourceRepo, cache);
+        }
+        PokemonRepository repo = cached != null ? cached : sourceRepo;
         var service = new PokedexService(repo);
+        var prefetch = new PrefetchScheduler(service, prefetchBudget, PrefetchScheduler.DEFAULT_DETAIL_ROWS);
 
         var favRepo = new FavoritesRepository();
         var favService = new FavoritesService(favRepo);
 
 
         Generation currentGen = Generation.GEN_1;
+        var listCursors = new PageCursors();
+        var typeCursors = new PageCursors();
 
         System.out.println("Pokedex CLI - type 'help'");
 
@@ -63,6 +95,10 @@ public class Main {
                     System.out.println("  show <id|name> (example: show 25 / show pikachu)");
                     System.out.println("  type <TYPE> [page]  (example: type FIRE 2)");
                     System.out.println("  search <text> [page]  (example: search char 2)");
+                    System.out.println("  top <stat> [n]  (example: top speed 10 / top total)");
+                    System.out.println("  similar <id|name> [k]  (example: similar charmander 5)");
+                    System.out.println("  team [size]    (best type coverage in the current gen)");
+                    System.out.println("  team check <id|name>...  (example: team check 4 7 1)");
                     System.out.println("  fav list");
                     System.out.println("  fav add <id>   (example: fav add 4)");
                     System.out.println("  fav rm <id>    (example: fav rm 4)");
@@ -86,6 +122,7 @@ public class Main {
                         case "9" -> Generation.GEN_9;
                         default -> currentGen;
                     };
+                    prefetch.cancelAll(); // lo precargado era de la generación anterior
                     System.out.println("Current generation: " + currentGen);
                     continue;
                 }
@@ -104,7 +141,13 @@ public class Main {
                         }
                     }
 
-                    var results = service.list(currentGen, page, pageSize);
+                    final Generation gen = currentGen;
+                    final int p = page;
+                    prefetch.claimPage(gen, page);
+                    var results = listCursors.page(gen, page,
+                            afterId -> service.listAfter(gen, afterId, pageSize),
+                            () -> service.list(gen, p, pageSize));
+                    prefetch.listPagesAround(gen, page, pageSize, listCursors);
 
                     if (results.isEmpty()) {
                         System.out.println("No results (page " + page + ")");
@@ -119,8 +162,11 @@ public class Main {
                 if (line.toLowerCase().startsWith("show ")) {
                     String arg = line.substring(5).trim();
 
-                    service.show(arg).ifPresentOrElse(
+                    service.show(arg, currentGen).ifPresentOrElse(
                         p -> {
+                            if (!arg.matches("\\d+") && !p.getName().equalsIgnoreCase(arg)) {
+                                System.out.println("(closest match for '" + arg + "')");
+                            }
                             System.out.println("-----");
                             System.out.println("#" + String.format("%03d", p.getId()) + " " + p.getName());
                             System.out.println("Gen: " + p.getGeneration());
@@ -155,7 +201,13 @@ public class Main {
 
                     try {
                         Type type = Type.valueOf(typeArg.toUpperCase());
-                        var results = service.byType(currentGen, type, page, pageSize);
+                        final Generation gen = currentGen;
+                        final int p = page;
+                        prefetch.claimPage(PrefetchScheduler.typeKey(gen, type), page);
+                        var results = typeCursors.page(PrefetchScheduler.typeKey(gen, type), page,
+                                afterId -> service.byTypeAfter(gen, type, afterId, pageSize),
+                                () -> service.byType(gen, type, p, pageSize));
+                        prefetch.typePagesAround(gen, type, page, pageSize, typeCursors);
 
                         if (results.isEmpty()) {
                             System.out.println("No results (type " + type + ", page " + page + ")");
@@ -170,6 +222,95 @@ public class Main {
                 }
 
 
+                if (line.toLowerCase().startsWith("top ")) {
+                    String[] parts = line.split("\\s+");
+                    Stat stat;
+                    int n = 10;
+                    try {
+                        stat = Stat.valueOf(parts[1].toUpperCase().replace('-', '_'));
+                        if (parts.length >= 3) n = Integer.parseInt(parts[2]);
+                        if (n < 1) throw new IllegalArgumentException("n must be at least 1");
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Usage: top <stat> [n >= 1]  (stats: " + Arrays.toString(Stat.values()) + ")");
+                        continue;
+                    }
+
+                    var results = service.top(currentGen, stat, n);
+                    if (results.isEmpty()) {
+                        System.out.println("No results (Gen " + currentGen + ")");
+                    } else {
+                        System.out.println("Top " + n + " " + stat + " - Gen " + currentGen);
+                        for (Pokemon p : results) {
+                            System.out.println("#" + String.format("%03d", p.getId()) + " " + p.getName()
+                                    + "  " + stat.of(p.getStats()));
+                        }
+                    }
+                    continue;
+                }
+
+                if (line.toLowerCase().startsWith("similar ")) {
+                    String[] parts = line.split("\\s+");
+                    int k = 5;
+                    if (parts.length >= 3) {
+                        try {
+                            k = Integer.parseInt(parts[2]);
+                        } catch (NumberFormatException e) {
+                            System.out.println("Usage: similar <id|name> [k]");
+                            continue;
+                        }
+                    }
+
+                    var target = service.show(parts[1], currentGen);
+                    if (target.isEmpty()) {
+                        System.out.println("Not found: " + parts[1]);
+                        continue;
+                    }
+
+                    Pokemon base = target.get();
+                    System.out.println("Similar to #" + String.format("%03d", base.getId()) + " " + base.getName()
+                            + " - Gen " + currentGen + " (" + base.getStats() + ")");
+                    for (Pokemon p : service.similar(base, k, null, currentGen)) {
+                        System.out.println("#" + String.format("%03d", p.getId()) + " " + p.getName() + "  " + p.getStats());
+                    }
+                    continue;
+                }
+
+                if (line.equalsIgnoreCase("team") || line.toLowerCase().startsWith("team ")) {
+                    String[] parts = line.split("\\s+");
+
+                    // team check <id|name>... -> cobertura de un equipo concreto
+                    if (parts.length >= 2 && parts[1].equalsIgnoreCase("check")) {
+                        List<Pokemon> team = new ArrayList<>();
+                        for (int i = 2; i < parts.length; i++) {
+                            var p = service.show(parts[i], currentGen);
+                            if (p.isEmpty()) System.out.println("Not found: " + parts[i]);
+                            else team.add(p.get());
+                        }
+                        if (team.isEmpty() || team.size() > TeamOptimizer.MAX_TEAM_SIZE) {
+                            System.out.println("Usage: team check <id|name>...  (1-" + TeamOptimizer.MAX_TEAM_SIZE + " members)");
+                            continue;
+                        }
+                        printTeam(team, service.analyzeTeam(team));
+                        continue;
+                    }
+
+                    // team [size] -> mejor cobertura posible con la generación actual
+                    int size = TeamOptimizer.MAX_TEAM_SIZE;
+                    try {
+                        if (parts.length >= 2) size = Integer.parseInt(parts[1]);
+                        if (size < 1 || size > TeamOptimizer.MAX_TEAM_SIZE) throw new NumberFormatException();
+                    } catch (NumberFormatException e) {
+                        System.out.println("Usage: team [size] | team check <id|name>...");
+                        continue;
+                    }
+
+                    var best = service.bestTeam(currentGen, size);
+                    System.out.println("Best team - Gen " + currentGen + " (" + best.nodes() + " nodes searched in "
+                            + best.elapsedMillis() + " ms)");
+                    printTeam(best.team(), best.coverage());
+                    continue;
+                }
+
                 if (line.toLowerCase().startsWith("search ")) {
                     String[] parts = line.split("\\s+");
                     if (parts.length < 2) {
@@ -190,7 +331,9 @@ public class Main {
                         }
                     }
 
+                    prefetch.claimPage(PrefetchScheduler.searchKey(currentGen, text), page);
                     var results = service.searchNames(currentGen, text, page, pageSize);
+                    prefetch.searchPagesAround(currentGen, text, page, pageSize);
 
                     if (results.isEmpty()) {
                         System.out.println("No results (\"" + text + "\", Gen " + currentGen + ", page " + page + ")");
@@ -206,24 +349,16 @@ public class Main {
                 if (line.toLowerCase().equals("fav list")) {
                     var favIds = favService.listIds();
 
-                    // Resolvemos IDs -> Optional<Pokemon>
-                    var resolved = favIds.stream()
-                            .map(id -> service.show(String.valueOf(id)) // Optional<Pokemon>
-                                    .map(p -> new FavResolved(id, p))
-                                    .orElseGet(() -> new FavResolved(id, null)))
-                            .collect(Collectors.toList());
+                    // Todos los ids de una vez: caché en lote y solo los que falten a la fuente
+                    var resolved = service.findByIds(favIds);
 
                     // Separar cargados / no cargados
-                    var loaded = resolved.stream()
-                            .filter(r -> r.pokemon != null)
-                            .map(r -> r.pokemon)
+                    var loaded = resolved.found().stream()
                             .sorted(Comparator.comparing(Pokemon::getGeneration)
                                     .thenComparingInt(Pokemon::getId))
                             .toList();
 
-                    var notLoaded = resolved.stream()
-                            .filter(r -> r.pokemon == null)
-                            .map(r -> r.id)
+                    var notLoaded = resolved.missing().stream()
                             .sorted()
                             .toList();
 
@@ -290,30 +425,59 @@ public class Main {
                 }
 
                 if (line.toLowerCase().equals("cache info")) {
-                    System.out.println("Cache directory: " + cache.location());
-                    System.out.println("Cached pokemons: " + cache.countCachedPokemons());
+                    if (cached == null) {
+                        System.out.println("No cache: local source");
+                    } else {
+                        System.out.println("Cache directory: " + cache.location());
+                        System.out.println("Cached pokemons: " + cache.countCachedPokemons());
+                        System.out.println("Memory cache: " + cached.memoryCache().stats());
+                        System.out.println("Coalesced lookups: " + cached.coalescedLookups());
+                    }
+                    System.out.println("Prefetch: " + prefetch.stats());
                     continue;
                 }
 
                 if (line.toLowerCase().equals("cache clear")) {
-                    int removed = cache.clear();
-                    System.out.println("Cache cleared (" + removed + " files removed)");
+                    int removed = cached == null ? 0 : cached.clearCaches();
+                    if (sourceRepo instanceof PokeApiPokemonRepository api) {
+                        removed += api.httpCache().clear();
+                    }
+                    System.out.println("Cache cleared (" + removed + " entries removed)");
                     continue;
                 }
 
 
                 System.out.println("Unknown command. Type 'help'.");
             }
+        } finally {
+            prefetch.close();
+            if (cache != null) cache.close(); // vuelca el índice de la caché en disco
         }
     }
 
-    private static class FavResolved {
-        final int id;
-        final Pokemon pokemon; // null si no está cargado
+    private static void printTeam(List<Pokemon> team, TeamCoverage coverage) {
+        System.out.println("-----");
+        for (Pokemon p : team) {
+            System.out.println("#" + String.format("%03d", p.getId()) + " " + p.getName() + " " + p.getTypes());
+        }
+        System.out.println("Coverage: " + coverage.score() + "/36");
+        System.out.println("Super effective vs: " + coverage.offensive());
+        System.out.println("Resists: " + coverage.resisted());
+        System.out.println("Exposed to: " + coverage.exposed());
+        System.out.println("-----");
+    }
 
-        FavResolved(int id, Pokemon pokemon) {
-            this.id = id;
-            this.pokemon = pokemon;
+    // ~/.pokedex/pokedex.dat; se genera a partir del dataset JSON si no existe o si el JSON ha cambiado desde entonces
+    private static PokemonRepository openMapped() {
+        Path file = Path.of(System.getProperty("user.home"), ".pokedex", "pokedex.dat");
+        long stamp = JsonPokemonRepository.sourceStamp();
+        if (MappedPokemonRepository.sourceStamp(file).orElse(~stamp) != stamp) {
+            try {
+                MappedPokemonRepository.write(new JsonPokemonRepository().findAll(), file, stamp);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to build mapped data file: " + file, e);
+            }
         }
+        return new MappedPokemonRepository(file);
     }
 }
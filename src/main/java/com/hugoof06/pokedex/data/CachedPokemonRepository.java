@@ -1,82 +1,251 @@
 package com.hugoof06.pokedex.data;
 
 import com.hugoof06.pokedex.cache.FilePokemonCache;
+import com.hugoof06.pokedex.cache.MemoryPokemonCache;
+import com.hugoof06.pokedex.cache.QueryResultCache;
 import com.hugoof06.pokedex.model.Generation;
 import com.hugoof06.pokedex.model.Pokemon;
 import com.hugoof06.pokedex.model.Type;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 public class CachedPokemonRepository implements PokemonRepository {
 
     private final PokemonRepository source;
     private final FilePokemonCache cache;
+    private final MemoryPokemonCache memory;
+    private final QueryResultCache queries;
+
+    // varios llamantes pidiendo el mismo id a la vez (UI, prefetch, comando) -> una sola ida a la fuente
+    private final SingleFlight<Integer, Optional<Pokemon>> idFlights = new SingleFlight<>();
+
+    // nombre (minúsculas) -> id de los Pokémon ya vistos: así buscar por nombre también sale de la caché
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
 
     public CachedPokemonRepository(PokemonRepository source, FilePokemonCache cache) {
+        this(source, cache, new MemoryPokemonCache());
+    }
+
+    public CachedPokemonRepository(PokemonRepository source, FilePokemonCache cache, MemoryPokemonCache memory) {
+        this(source, cache, memory, new QueryResultCache());
+    }
+
+    public CachedPokemonRepository(PokemonRepository source, FilePokemonCache cache,
+                                   MemoryPokemonCache memory, QueryResultCache queries) {
         this.source = source;
         this.cache = cache;
+        this.memory = memory;
+        this.queries = queries;
     }
 
     @Override
     public Optional<Pokemon> findById(int id) {
-        // 1) cache
+        // 1) memoria
+        Optional<Pokemon> hot = memory.getById(id);
+        if (hot.isPresent()) return hot;
+
+        // 2) disco (y lo subimos a memoria)
         Optional<Pokemon> cached = cache.getById(id);
-        if (cached.isPresent()) return cached;
+        if (cached.isPresent()) {
+            memory.put(cached.get());
+            return cached;
+        }
+
+        // 3) source (agrupando peticiones concurrentes del mismo id)
+        return idFlights.run(id, () -> {
+            Optional<Pokemon> fromSource = source.findById(id);
+            fromSource.ifPresent(this::store);
+            return fromSource;
+        });
+    }
+
+    @Override
+    public PokemonBatch findByIds(Collection<Integer> ids) {
+        // 1) memoria y 2) disco, cada uno con una sola consulta para todo el lote
+        Map<Integer, Pokemon> found = new HashMap<>(memory.getByIds(ids));
+
+        List<Integer> notInMemory = new ArrayList<>();
+        for (int id : ids) if (!found.containsKey(id)) notInMemory.add(id);
+        if (!notInMemory.isEmpty()) {
+            Map<Integer, Pokemon> fromDisk = cache.getByIds(notInMemory);
+            fromDisk.values().forEach(memory::put);
+            found.putAll(fromDisk);
+        }
 
-        // 2) source
-        Optional<Pokemon> fromSource = source.findById(id);
-        fromSource.ifPresent(cache::put);
-        return fromSource;
+        // 3) solo los que faltan, en una única llamada a la fuente
+        List<Integer> misses = new ArrayList<>();
+        for (int id : notInMemory) if (!found.containsKey(id)) misses.add(id);
+        if (!misses.isEmpty()) {
+            PokemonBatch fromSource = source.findByIds(misses);
+            for (Pokemon p : fromSource.found()) {
+                store(p);
+                found.put(p.getId(), p);
+            }
+        }
+        return new PokemonBatch(List.copyOf(ids), found);
     }
 
     @Override
     public Optional<Pokemon> findByName(String name) {
-        // Buscar por nombre depende de la fuente: lo delegamos
+        // Si ya lo hemos visto se resuelve por id (memoria/disco); si no, depende de la fuente: lo delegamos
+        if (name == null) return Optional.empty();
+        Integer known = idsByName.get(name.trim().toLowerCase(Locale.ROOT));
+        if (known != null) {
+            Optional<Pokemon> hit = findById(known);
+            if (hit.isPresent()) return hit;
+        }
+
         Optional<Pokemon> p = source.findByName(name);
-        p.ifPresent(cache::put);
+        p.ifPresent(this::store);
         return p;
     }
 
     @Override
     public List<Pokemon> findAll() {
         List<Pokemon> list = source.findAll();
-        list.forEach(cache::put);
+        list.forEach(this::store);
         return list;
     }
 
     @Override
     public List<Pokemon> findAll(Generation gen) {
-        List<Pokemon> list = source.findAll(gen);
-        list.forEach(cache::put);
-        return list;
+        return cachedList("all:" + gen, () -> source.findAll(gen));
     }
 
     @Override
     public List<Pokemon> findByType(Type type, Generation gen) {
-        List<Pokemon> list = source.findByType(type, gen);
-        list.forEach(cache::put);
-        return list;
+        return cachedList("type:" + gen + ":" + type, () -> source.findByType(type, gen));
     }
 
     @Override
     public List<Pokemon> list(Generation gen, int offset, int limit) {
-        List<Pokemon> page = source.list(gen, offset, limit);
-        page.forEach(cache::put);
-        return page;
+        int o = Math.max(offset, 0);
+        int l = limit < 1 ? 20 : limit;
+        return cachedList("list:" + gen + ":" + o + ":" + l, () -> source.list(gen, o, l));
+    }
+
+    @Override
+    public Page<Pokemon> listAfter(Generation gen, int afterId, int limit) {
+        int l = limit < 1 ? 20 : limit;
+        return cachedPage("listAfter:" + gen + ":" + afterId + ":" + l, () -> source.listAfter(gen, afterId, l));
     }
 
     @Override
     public List<Pokemon> listByType(Type type, Generation gen, int offset, int limit) {
-        List<Pokemon> page = source.listByType(type, gen, offset, limit);
-        page.forEach(cache::put);
-        return page;
+        int o = Math.max(offset, 0);
+        int l = limit < 1 ? 20 : limit;
+        return cachedList("listByType:" + gen + ":" + type + ":" + o + ":" + l,
+                () -> source.listByType(type, gen, o, l));
+    }
+
+    @Override
+    public Page<Pokemon> listByTypeAfter(Type type, Generation gen, int afterId, int limit) {
+        int l = limit < 1 ? 20 : limit;
+        return cachedPage("listByTypeAfter:" + gen + ":" + type + ":" + afterId + ":" + l,
+                () -> source.listByTypeAfter(type, gen, afterId, l));
     }
 
     @Override
     public List<String> searchSpeciesNames(Generation gen, String query, int offset, int limit) {
-        // No cacheamos aquí porque solo son nombres (no objetos Pokemon).
-        return source.searchSpeciesNames(gen, query, offset, limit);
+        // Solo son nombres (no objetos Pokemon): se cachea la lista tal cual
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        int o = Math.max(offset, 0);
+        int l = limit < 1 ? 20 : limit;
+        String key = "search:" + gen + ":" + q + ":" + o + ":" + l;
+
+        Optional<List<String>> hit = queries.names(key);
+        if (hit.isPresent()) return hit.get();
+
+        List<String> names = source.searchSpeciesNames(gen, q, o, l);
+        queries.putNames(key, names);
+        return names;
+    }
+
+    public MemoryPokemonCache memoryCache() {
+        return memory;
+    }
+
+    public QueryResultCache queryCache() {
+        return queries;
+    }
+
+    /** Vacía todos los niveles (consultas, memoria y disco); devuelve las entradas borradas del disco. */
+    public int clearCaches() {
+        queries.clear();
+        memory.clear();
+        idsByName.clear();
+        return cache.clear();
+    }
+
+    /** Búsquedas por id que se ahorraron ir a la fuente porque ya había una igual en vuelo. */
+    public long coalescedLookups() {
+        return idFlights.coalesced();
+    }
+
+    // ----------------- Internals -----------------
+
+    /** Resultado de la consulta reconstruido desde la caché por id, o la fuente si no está (o falta algún id). */
+    private List<Pokemon> cachedList(String key, Supplier<List<Pokemon>> load) {
+        Optional<QueryResultCache.IdPage> hit = queries.ids(key);
+        if (hit.isPresent()) {
+            Optional<List<Pokemon>> rebuilt = fromCache(hit.get().ids());
+            if (rebuilt.isPresent()) return rebuilt.get();
+            queries.invalidate(key);
+        }
+
+        List<Pokemon> list = load.get();
+        list.forEach(this::store);
+        queries.putIds(key, idsOf(list), Page.END);
+        return list;
+    }
+
+    private Page<Pokemon> cachedPage(String key, Supplier<Page<Pokemon>> load) {
+        Optional<QueryResultCache.IdPage> hit = queries.ids(key);
+        if (hit.isPresent()) {
+            Optional<List<Pokemon>> rebuilt = fromCache(hit.get().ids());
+            if (rebuilt.isPresent()) return new Page<>(rebuilt.get(), hit.get().nextAfterId());
+            queries.invalidate(key);
+        }
+
+        Page<Pokemon> page = load.get();
+        page.items().forEach(this::store);
+        queries.putIds(key, idsOf(page.items()), page.nextAfterId());
+        return page;
+    }
+
+    /** Pokémon de los ids desde memoria/disco; vacío si alguno ya no está cacheado. */
+    private Optional<List<Pokemon>> fromCache(List<Integer> ids) {
+        List<Pokemon> out = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Optional<Pokemon> p = memory.getById(id);
+            if (p.isEmpty()) {
+                p = cache.getById(id);
+                if (p.isEmpty()) return Optional.empty();
+                memory.put(p.get());
+            }
+            out.add(p.get());
+        }
+        return Optional.of(out);
+    }
+
+    private static List<Integer> idsOf(List<Pokemon> list) {
+        List<Integer> ids = new ArrayList<>(list.size());
+        for (Pokemon p : list) ids.add(p.getId());
+        return ids;
+    }
+
+    private void store(Pokemon p) {
+        memory.put(p);
+        cache.put(p);
+        idsByName.put(p.getName().toLowerCase(Locale.ROOT), p.getId());
     }
 
 }
@@ -6,41 +6,130 @@ import com.hugoof06.pokedex.model.Generation;
 import com.hugoof06.pokedex.model.Pokemon;
 import com.hugoof06.pokedex.model.Type;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 public class JsonPokemonRepository implements PokemonRepository {
 
-    private final List<Pokemon> all;
+    private static final String JSON = "/data/pokemon_gen1.json";
+    private static final String SNAPSHOT = "/data/pokemon_gen1.bin";
+
+    private final PokemonIndex index;
+
+    // índice de trigramas de nombres por generación para searchSpeciesNames (resultados en orden de pokedex)
+    private final EnumMap<Generation, NameIndex> nameIndexes = new EnumMap<>(Generation.class);
 
     public JsonPokemonRepository() {
+        List<Pokemon> all;
         try {
-            ObjectMapper mapper = new ObjectMapper();
-
-            InputStream is = this.getClass().getResourceAsStream("/data/pokemon_gen1.json");
-            if (is == null) {
-                throw new IllegalStateException("Cannot find /data/pokemon_gen1.json in resources");
+            URL resource = jsonResource();
+            // tamaño y fecha sin leer el contenido: si son los del build, el JSON ni se abre
+            long[] stamp = sizeAndModified(resource);
+
+            byte[] snapshot = readSnapshot();
+
+            // 1) snapshot binario generado en el build, si es de un JSON con este tamaño y fecha
+            // 2) si no, el JSON se lee una vez: con su CRC se decide si el snapshot aún vale y, si no, se parsea
+            Optional<List<Pokemon>> fromSnapshot = PokemonSnapshot.decode(snapshot, stamp[0], stamp[1]);
+            if (fromSnapshot.isPresent()) {
+                all = fromSnapshot.get();
+            } else {
+                byte[] json = readJson(resource);
+                all = PokemonSnapshot.decode(snapshot, PokemonSnapshot.crc32(json)).orElseGet(() -> parseJson(json));
             }
-
-            this.all = mapper.readValue(is, new TypeReference<List<Pokemon>>() {});
         } catch (Exception e) {
             throw new RuntimeException("Failed to load pokemon data from JSON", e);
         }
+
+        this.index = new PokemonIndex(all);
+        for (Generation g : Generation.values()) {
+            Map<Integer, String> names = new HashMap<>();
+            for (Pokemon p : index.all(g)) names.put(p.getId(), p.getName());
+            nameIndexes.put(g, NameIndex.build(names));
+        }
+    }
+
+    /** El snapshot del classpath, o vacío si no está o no se puede leer (entonces manda el JSON). */
+    private byte[] readSnapshot() {
+        try (InputStream bin = this.getClass().getResourceAsStream(SNAPSHOT)) {
+            return bin == null ? new byte[0] : bin.readAllBytes(); // una sola lectura secuencial
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Huella barata del dataset JSON (tamaño y fecha, sin leerlo): cambia si se edita el JSON.
+     * La usan los ficheros derivados de él (p.ej. pokedex.dat) para saber si hay que regenerarlos.
+     */
+    public static long sourceStamp() {
+        try {
+            long[] stamp = sizeAndModified(jsonResource());
+            return stamp[0] * 1_000_003L ^ stamp[1];
+        } catch (IOException | URISyntaxException e) {
+            throw new RuntimeException("Cannot stat " + JSON, e);
+        }
+    }
+
+    private static URL jsonResource() {
+        URL resource = JsonPokemonRepository.class.getResource(JSON);
+        if (resource == null) {
+            throw new IllegalStateException("Cannot find " + JSON + " in resources");
+        }
+        return resource;
+    }
+
+    /** {tamaño, fecha de modificación en ms} del recurso, ya esté en un directorio o dentro del jar. */
+    private static long[] sizeAndModified(URL resource) throws IOException, URISyntaxException {
+        if ("file".equals(resource.getProtocol())) {
+            Path file = Path.of(resource.toURI());
+            return new long[]{Files.size(file), Files.getLastModifiedTime(file).toMillis()};
+        }
+        URLConnection conn = resource.openConnection();
+        return new long[]{conn.getContentLengthLong(), conn.getLastModified()};
+    }
+
+    private static byte[] readJson(URL resource) {
+        try (InputStream is = resource.openStream()) {
+            return is.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Pokemon> parseJson(byte[] json) {
+        try {
+            return new ObjectMapper().readValue(json, new TypeReference<List<Pokemon>>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Optional<PokemonIndex> loadedIndex() {
+        return Optional.of(index);
     }
 
     @Override
     public List<Pokemon> findAll() {
-        return all;
+        return index.all();
     }
 
     @Override
     public List<Pokemon> findAll(Generation gen) {
-        return all.stream()
-                .filter(p -> p.getGeneration() == gen)
-                .collect(Collectors.toList());
+        return index.all(gen);
     }
 
     @Override
@@ -48,36 +137,39 @@ public class JsonPokemonRepository implements PokemonRepository {
         if (offset < 0) offset = 0;
         if (limit < 1) limit = 20;
 
-        List<Pokemon> filtered = findAll(gen);
+        List<Pokemon> filtered = index.all(gen);
         if (offset >= filtered.size()) return List.of(); // Si la posición es más grande que la lista, se devuelve una lista vacía
 
         int to = Math.min(offset + limit, filtered.size());
         return filtered.subList(offset, to);
     }
 
+    @Override
+    public Page<Pokemon> listAfter(Generation gen, int afterId, int limit) {
+        if (limit < 1) limit = 20;
+        return index.pageAfter(gen, afterId, limit);
+    }
+
     @Override
     public Optional<Pokemon> findById(int id) {
-        return all.stream()
-                .filter(p -> p.getId() == id)
-                .findFirst();
+        return index.byId(id);
     }
 
     @Override
-    public Optional<Pokemon> findByName(String name) {
-        if (name == null) return Optional.empty();
-        String target = name.trim().toLowerCase(Locale.ROOT);
+    public PokemonBatch findByIds(Collection<Integer> ids) {
+        Map<Integer, Pokemon> found = new HashMap<>();
+        for (int id : ids) index.byId(id).ifPresent(p -> found.put(id, p));
+        return new PokemonBatch(List.copyOf(ids), found);
+    }
 
-        return all.stream()
-                .filter(p -> p.getName().toLowerCase(Locale.ROOT).equals(target))
-                .findFirst();
+    @Override
+    public Optional<Pokemon> findByName(String name) {
+        return index.byName(name);
     }
 
     @Override
     public List<Pokemon> findByType(Type type, Generation gen) {
-        return all.stream()
-                .filter(p -> p.getGeneration() == gen)
-                .filter(p -> p.getTypes().contains(type))
-                .collect(Collectors.toList());
+        return index.materialize(index.typeInGeneration(type, gen));
     }
 
     @Override
@@ -85,13 +177,13 @@ public class JsonPokemonRepository implements PokemonRepository {
         if (offset < 0) offset = 0;
         if (limit < 1) limit = 20;
 
-        List<Pokemon> filtered = findAll(gen).stream()
-                .filter(p -> p.getTypes().contains(type))
-                .toList();
+        return index.slice(index.typeInGeneration(type, gen), offset, limit);
+    }
 
-        if (offset >= filtered.size()) return List.of();
-        int to = Math.min(offset + limit, filtered.size());
-        return filtered.subList(offset, to);
+    @Override
+    public Page<Pokemon> listByTypeAfter(Type type, Generation gen, int afterId, int limit) {
+        if (limit < 1) limit = 20;
+        return index.pageAfter(index.typeInGeneration(type, gen), afterId, limit);
     }
 
     @Override
@@ -99,18 +191,8 @@ public class JsonPokemonRepository implements PokemonRepository {
         if (offset < 0) offset = 0;
         if (limit < 1) limit = 20;
 
-        String q = query == null ? "" : query.trim().toLowerCase();
-        var matches = findAll(gen).stream()
-                .map(p -> p.getName().toLowerCase())
-                .filter(n -> n.contains(q))
-                .sorted()
-                .toList();
-
-        if (offset >= matches.size()) return List.of();
-        int to = Math.min(offset + limit, matches.size());
-        return matches.subList(offset, to);
+        return nameIndexes.get(gen).search(query, offset, limit);
     }
 
 
 }
-
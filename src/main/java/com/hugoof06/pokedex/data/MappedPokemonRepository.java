@@ -0,0 +1,411 @@
+package com.hugoof06.pokedex.data;
+
+import com.hugoof06.pokedex.model.Generation;
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stats;
+import com.hugoof06.pokedex.model.Type;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Repositorio sobre un fichero de registros de ancho fijo mapeado en memoria (mmap).
+ *
+ * No se materializa ningún Pokemon al arrancar: solo se mapea el fichero. Cada consulta recorre
+ * los registros directamente sobre el buffer mapeado y decodifica únicamente los Pokémon que
+ * devuelve, así que el heap no crece con el tamaño del dataset.
+ *
+ * Formato:
+ * - cabecera (32 bytes): magic, versión, nº de registros, offset de la tabla de nombres,
+ *   nº de huecos de la tabla, offset de la zona de strings, huella de los datos de origen (long)
+ * - registros de 32 bytes, ordenados por id: id (int), generación (byte), tipo principal (byte),
+ *   6 stats (bytes sin signo), máscara de tipos (int), nombre y sprite como offset (int) + longitud (short)
+ * - tabla hash de nombres en minúsculas (direccionamiento abierto): índice de registro + 1, 0 = vacío
+ * - zona de strings UTF-8
+ */
+public class MappedPokemonRepository implements PokemonRepository {
+
+    private static final int MAGIC = 0x5044584D; // "PDXM"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 32;
+
+    // offsets dentro de cada registro
+    private static final int R_ID = 0;
+    private static final int R_GEN = 4;
+    private static final int R_PRIMARY_TYPE = 5;
+    private static final int R_STATS = 6;
+    private static final int R_TYPE_MASK = 12;
+    private static final int R_NAME_OFF = 16;
+    private static final int R_NAME_LEN = 20;
+    private static final int R_SPRITE_OFF = 22;
+    private static final int R_SPRITE_LEN = 26;
+
+    /** Lo más largo que puede ser un nombre o un sprite (en bytes UTF-8). */
+    public static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+    /** Tamaño máximo del fichero: se genera en un solo array y se direcciona con offsets int. */
+    public static final long MAX_FILE_BYTES = Integer.MAX_VALUE - 8;
+
+    private static final Generation[] GENS = Generation.values();
+    private static final Type[] TYPES = Type.values();
+
+    private final MappedByteBuffer buf;
+    private final int count;
+    private final int nameTableOffset;
+    private final int nameSlots;
+
+    public MappedPokemonRepository(Path file) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map pokemon data file: " + file, e);
+        }
+
+        if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a pokedex data file: " + file);
+        }
+        this.count = buf.getInt(8);
+        this.nameTableOffset = buf.getInt(12);
+        this.nameSlots = buf.getInt(16);
+    }
+
+    /** Genera el fichero a partir de una lista de Pokémon (p.ej. el dataset JSON o uno sintético). */
+    public static void write(List<Pokemon> pokemons, Path file) throws IOException {
+        write(pokemons, file, 0);
+    }
+
+    /**
+     * Como {@link #write(List, Path)} guardando en la cabecera una huella de los datos de origen
+     * (ver {@link #sourceStamp(Path)}), para saber luego si el fichero hay que regenerarlo.
+     *
+     * @throws IllegalArgumentException si algún dato no cabe en el formato (stat fuera de 0..255, nombre
+     *                                  o sprite de más de {@link #MAX_STRING_BYTES} bytes) o el fichero
+     *                                  pasaría de {@link #MAX_FILE_BYTES}: nada se recorta en silencio
+     */
+    public static void write(List<Pokemon> pokemons, Path file, long sourceStamp) throws IOException {
+        List<Pokemon> sorted = new ArrayList<>(pokemons);
+        sorted.sort(Comparator.comparingInt(Pokemon::getId));
+        int n = sorted.size();
+
+        List<byte[]> strings = new ArrayList<>();
+        long stringsBytes = 0;
+        for (Pokemon p : sorted) {
+            checkStats(p);
+            byte[] name = checkedString(p, "name", p.getName());
+            byte[] sprite = p.getSpriteUrl() == null ? new byte[0] : checkedString(p, "sprite", p.getSpriteUrl());
+            strings.add(name);
+            strings.add(sprite);
+            stringsBytes += name.length + sprite.length;
+        }
+
+        // todo el formato usa offsets int y se arma en un único buffer: se comprueba antes de calcularlos
+        long slotsLong = Long.highestOneBit(Math.max(2, n * 2L - 1)) << 1; // potencia de 2 >= 2n
+        long total = HEADER_BYTES + (long) n * RECORD_BYTES + slotsLong * 4 + stringsBytes;
+        if (total > MAX_FILE_BYTES) {
+            throw new IllegalArgumentException("Mapped data file would be " + total + " bytes for " + n
+                    + " Pokémon; the format is limited to " + MAX_FILE_BYTES + " bytes");
+        }
+        int slots = (int) slotsLong;
+        int nameTableOffset = HEADER_BYTES + n * RECORD_BYTES;
+        int stringsOffset = nameTableOffset + slots * 4;
+
+        ByteBuffer out = ByteBuffer.allocate((int) total);
+        out.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, n)
+                .putInt(12, nameTableOffset).putInt(16, slots).putInt(20, stringsOffset)
+                .putLong(24, sourceStamp);
+
+        int strPos = stringsOffset;
+        for (int i = 0; i < n; i++) {
+            Pokemon p = sorted.get(i);
+            int r = HEADER_BYTES + i * RECORD_BYTES;
+
+            out.putInt(r + R_ID, p.getId());
+            out.put(r + R_GEN, (byte) p.getGeneration().ordinal());
+            out.put(r + R_PRIMARY_TYPE, (byte) (p.getTypes().isEmpty() ? -1 : p.getTypes().get(0).ordinal()));
+
+            int[] stats = statsOf(p);
+            for (int k = 0; k < 6; k++) out.put(r + R_STATS + k, (byte) stats[k]);
+
+            int mask = 0;
+            for (Type t : p.getTypes()) mask |= 1 << t.ordinal();
+            out.putInt(r + R_TYPE_MASK, mask);
+
+            byte[] name = strings.get(i * 2);
+            byte[] sprite = strings.get(i * 2 + 1);
+            out.putInt(r + R_NAME_OFF, strPos).putShort(r + R_NAME_LEN, (short) name.length);
+            out.put(strPos, name);
+            strPos += name.length;
+            out.putInt(r + R_SPRITE_OFF, strPos)
+                    .putShort(r + R_SPRITE_LEN, (short) (p.getSpriteUrl() == null ? -1 : sprite.length));
+            out.put(strPos, sprite);
+            strPos += sprite.length;
+
+            int slot = p.getName().toLowerCase(Locale.ROOT).hashCode() & (slots - 1);
+            while (out.getInt(nameTableOffset + slot * 4) != 0) slot = (slot + 1) & (slots - 1);
+            out.putInt(nameTableOffset + slot * 4, i + 1);
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, out.array());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int[] statsOf(Pokemon p) {
+        Stats s = p.getStats();
+        return new int[]{s.getHp(), s.getAttack(), s.getDefense(), s.getSpAttack(), s.getSpDefense(), s.getSpeed()};
+    }
+
+    /** Cada stat va en un byte sin signo. */
+    private static void checkStats(Pokemon p) {
+        for (int v : statsOf(p)) {
+            if (v < 0 || v > 255) {
+                throw new IllegalArgumentException("Stat " + v + " of #" + p.getId() + " is out of range 0..255");
+            }
+        }
+    }
+
+    /** Las longitudes van en un short (y -1 es "sin sprite"). */
+    private static byte[] checkedString(Pokemon p, String what, String value) {
+        byte[] b = value.getBytes(StandardCharsets.UTF_8);
+        if (b.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("The " + what + " of #" + p.getId() + " is " + b.length
+                    + " bytes; at most " + MAX_STRING_BYTES + " fit");
+        }
+        return b;
+    }
+
+    /** Huella de origen guardada al generar el fichero; vacío si no existe o no es un fichero de datos. */
+    public static OptionalLong sourceStamp(Path file) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (ch.read(header) < 0) return OptionalLong.empty();
+            }
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) return OptionalLong.empty();
+            return OptionalLong.of(header.getLong(24));
+        } catch (IOException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    /** Número de registros del fichero. */
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public List<Pokemon> findAll() {
+        List<Pokemon> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) out.add(decode(i));
+        return out;
+    }
+
+    @Override
+    public List<Pokemon> findAll(Generation gen) {
+        List<Pokemon> out = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (generationOf(i) == gen.ordinal()) out.add(decode(i));
+        }
+        return out;
+    }
+
+    @Override
+    public List<Pokemon> list(Generation gen, int offset, int limit) {
+        if (offset < 0) offset = 0;
+        if (limit < 1) limit = 20;
+        return scan(0, gen, 0, offset, limit);
+    }
+
+    @Override
+    public Page<Pokemon> listAfter(Generation gen, int afterId, int limit) {
+        if (limit < 1) limit = 20;
+        return scanPage(gen, 0, afterId, limit);
+    }
+
+    @Override
+    public Optional<Pokemon> findById(int id) {
+        int i = firstAtLeast(id);
+        if (i >= count || idOf(i) != id) return Optional.empty();
+        return Optional.of(decode(i));
+    }
+
+    @Override
+    public PokemonBatch findByIds(Collection<Integer> ids) {
+        Map<Integer, Pokemon> found = new HashMap<>();
+        for (int id : ids) findById(id).ifPresent(p -> found.put(id, p));
+        return new PokemonBatch(List.copyOf(ids), found);
+    }
+
+    @Override
+    public Optional<Pokemon> findByName(String name) {
+        if (name == null) return Optional.empty();
+        String target = name.trim().toLowerCase(Locale.ROOT);
+
+        int mask = nameSlots - 1;
+        int slot = target.hashCode() & mask;
+        while (true) {
+            int ref = buf.getInt(nameTableOffset + slot * 4);
+            if (ref == 0) return Optional.empty();
+            int i = ref - 1;
+            if (nameOf(i).toLowerCase(Locale.ROOT).equals(target)) return Optional.of(decode(i));
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    public List<Pokemon> findByType(Type type, Generation gen) {
+        List<Pokemon> out = new ArrayList<>();
+        int bit = 1 << type.ordinal();
+        for (int i = 0; i < count; i++) {
+            if (generationOf(i) == gen.ordinal() && (typeMaskOf(i) & bit) != 0) out.add(decode(i));
+        }
+        return out;
+    }
+
+    @Override
+    public List<Pokemon> listByType(Type type, Generation gen, int offset, int limit) {
+        if (offset < 0) offset = 0;
+        if (limit < 1) limit = 20;
+        return scan(0, gen, 1 << type.ordinal(), offset, limit);
+    }
+
+    @Override
+    public Page<Pokemon> listByTypeAfter(Type type, Generation gen, int afterId, int limit) {
+        if (limit < 1) limit = 20;
+        return scanPage(gen, 1 << type.ordinal(), afterId, limit);
+    }
+
+    @Override
+    public List<String> searchSpeciesNames(Generation gen, String query, int offset, int limit) {
+        if (offset < 0) offset = 0;
+        if (limit < 1) limit = 20;
+
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        List<String> page = new ArrayList<>();
+        int seen = 0;
+        for (int i = 0; i < count && page.size() < limit; i++) {
+            if (generationOf(i) != gen.ordinal()) continue;
+            String n = nameOf(i).toLowerCase(Locale.ROOT);
+            if (!n.contains(q)) continue;
+            if (seen++ < offset) continue;
+            page.add(n);
+        }
+        return page;
+    }
+
+    // ----------------- Internals -----------------
+
+    /** Recorre desde el registro {@code from} los de la generación (y tipos, si typeBit != 0) con offset/limit. */
+    private List<Pokemon> scan(int from, Generation gen, int typeBit, int offset, int limit) {
+        List<Pokemon> out = new ArrayList<>(limit);
+        int seen = 0;
+        for (int i = from; i < count && out.size() < limit; i++) {
+            if (!matches(i, gen, typeBit)) continue;
+            if (seen++ < offset) continue;
+            out.add(decode(i));
+        }
+        return out;
+    }
+
+    private Page<Pokemon> scanPage(Generation gen, int typeBit, int afterId, int limit) {
+        List<Pokemon> out = new ArrayList<>(limit);
+        int i = firstAtLeast(afterId + 1);
+        for (; i < count && out.size() < limit; i++) {
+            if (matches(i, gen, typeBit)) out.add(decode(i));
+        }
+        // ¿queda alguno más después?
+        for (; i < count; i++) {
+            if (matches(i, gen, typeBit)) return new Page<>(out, out.get(out.size() - 1).getId());
+        }
+        return new Page<>(out, Page.END);
+    }
+
+    private boolean matches(int i, Generation gen, int typeBit) {
+        return generationOf(i) == gen.ordinal() && (typeBit == 0 || (typeMaskOf(i) & typeBit) != 0);
+    }
+
+    /** Búsqueda binaria sobre los ids mapeados: primer registro con id >= {@code id}. */
+    private int firstAtLeast(int id) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (idOf(mid) < id) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int record(int i) {
+        return HEADER_BYTES + i * RECORD_BYTES;
+    }
+
+    private int idOf(int i) {
+        return buf.getInt(record(i) + R_ID);
+    }
+
+    private int generationOf(int i) {
+        return buf.get(record(i) + R_GEN);
+    }
+
+    private int typeMaskOf(int i) {
+        return buf.getInt(record(i) + R_TYPE_MASK);
+    }
+
+    private String nameOf(int i) {
+        int r = record(i);
+        return string(buf.getInt(r + R_NAME_OFF), buf.getShort(r + R_NAME_LEN));
+    }
+
+    /** Solo aquí se crea el Pokemon: con los datos del registro mapeado. */
+    private Pokemon decode(int i) {
+        int r = record(i);
+
+        List<Type> types = new ArrayList<>(2);
+        int primary = buf.get(r + R_PRIMARY_TYPE);
+        int mask = buf.getInt(r + R_TYPE_MASK);
+        if (primary >= 0) {
+            types.add(TYPES[primary]);
+            mask &= ~(1 << primary);
+        }
+        for (int t = 0; t < TYPES.length; t++) {
+            if ((mask & (1 << t)) != 0) types.add(TYPES[t]);
+        }
+
+        Stats stats = new Stats(
+                stat(r, 0), stat(r, 1), stat(r, 2),
+                stat(r, 3), stat(r, 4), stat(r, 5));
+
+        short spriteLen = buf.getShort(r + R_SPRITE_LEN);
+        String sprite = spriteLen < 0 ? null : string(buf.getInt(r + R_SPRITE_OFF), spriteLen);
+
+        return new Pokemon(buf.getInt(r + R_ID), nameOf(i), GENS[buf.get(r + R_GEN)], types, stats, sprite);
+    }
+
+    private int stat(int r, int k) {
+        return buf.get(r + R_STATS + k) & 0xFF;
+    }
+
+    private String string(int offset, int len) {
+        byte[] b = new byte[len];
+        buf.get(offset, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,220 @@
+package com.hugoof06.pokedex.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Índice invertido de trigramas sobre los nombres de especie de una generación.
+ *
+ * Cada trigrama apunta a la lista (ordenada) de posiciones de los nombres que lo contienen; las
+ * posiciones siguen el orden de pokedex, así que intersecar las listas de los trigramas de la
+ * consulta ya da los candidatos en ese orden. Los candidatos se confirman con {@code contains}
+ * (tener todos los trigramas no garantiza que estén seguidos). Consultas de menos de 3 letras
+ * no tienen trigramas y se resuelven recorriendo los nombres, que están en memoria igualmente.
+ *
+ * Guarda también de qué versión de los datos sale ({@link #source()}, p.ej. el ETag de la respuesta
+ * de la API): quien lo carga de disco lo compara con la versión actual para saber si hay que rehacerlo.
+ */
+public final class NameIndex {
+
+    private static final int MAGIC = 0x5044584E; // "PDXN"
+    private static final int VERSION = 2;
+    private static final int GRAM = 3;
+
+    private final int[] ids;
+    private final String[] names;
+    private final Map<String, int[]> postings;
+    private final String source;
+
+    private NameIndex(int[] ids, String[] names, Map<String, int[]> postings, String source) {
+        this.ids = ids;
+        this.names = names;
+        this.postings = postings;
+        this.source = source;
+    }
+
+    /** Construye el índice a partir de pares (id, nombre); el orden de pokedex lo da el id. */
+    public static NameIndex build(Map<Integer, String> namesById) {
+        return build(namesById, "");
+    }
+
+    /** Como {@link #build(Map)}, apuntando la versión de los datos de los que sale. */
+    public static NameIndex build(Map<Integer, String> namesById, String source) {
+        List<Map.Entry<Integer, String>> entries = new ArrayList<>(namesById.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+
+        int n = entries.size();
+        int[] ids = new int[n];
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = entries.get(i).getKey();
+            names[i] = entries.get(i).getValue().toLowerCase(Locale.ROOT);
+        }
+
+        Map<String, List<Integer>> lists = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            String name = names[i];
+            for (int k = 0; k + GRAM <= name.length(); k++) {
+                List<Integer> list = lists.computeIfAbsent(name.substring(k, k + GRAM), g -> new ArrayList<>());
+                // un nombre con el mismo trigrama repetido solo se apunta una vez
+                if (list.isEmpty() || list.get(list.size() - 1) != i) list.add(i);
+            }
+        }
+
+        Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<String, List<Integer>> e : lists.entrySet()) {
+            postings.put(e.getKey(), e.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return new NameIndex(ids, names, postings, source == null ? "" : source);
+    }
+
+    /** Versión de los datos con los que se construyó ("" si no se indicó). */
+    public String source() {
+        return source;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /** Nombres (en minúsculas) que contienen {@code query}, en orden de pokedex, con offset/limit. */
+    public List<String> search(String query, int offset, int limit) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        List<String> page = new ArrayList<>();
+        int seen = 0;
+        for (int i : candidates(q)) {
+            if (!names[i].contains(q)) continue;
+            if (seen++ < offset) continue;
+            page.add(names[i]);
+            if (page.size() >= limit) break;
+        }
+        return page;
+    }
+
+    /** Igual que {@link #search} pero devolviendo los ids. */
+    public List<Integer> searchIds(String query, int offset, int limit) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        List<Integer> page = new ArrayList<>();
+        int seen = 0;
+        for (int i : candidates(q)) {
+            if (!names[i].contains(q)) continue;
+            if (seen++ < offset) continue;
+            page.add(ids[i]);
+            if (page.size() >= limit) break;
+        }
+        return page;
+    }
+
+    /** Posiciones candidatas (ascendentes): intersección de las listas de todos los trigramas de q. */
+    private int[] candidates(String q) {
+        if (q.length() < GRAM) return allPositions();
+
+        List<int[]> lists = new ArrayList<>();
+        for (int k = 0; k + GRAM <= q.length(); k++) {
+            int[] list = postings.get(q.substring(k, k + GRAM));
+            if (list == null) return new int[0]; // un trigrama que no aparece en ningún nombre
+            lists.add(list);
+        }
+
+        // se empieza por la lista más corta: el resultado nunca es mayor que ella
+        lists.sort(Comparator.comparingInt(l -> l.length));
+        int[] acc = lists.get(0);
+        for (int j = 1; j < lists.size() && acc.length > 0; j++) {
+            acc = intersect(acc, lists.get(j));
+        }
+        return acc;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0, i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private int[] allPositions() {
+        int[] all = new int[names.length];
+        for (int i = 0; i < all.length; i++) all[i] = i;
+        return all;
+    }
+
+    // ----------------- Persistencia -----------------
+
+    /** Guarda el índice completo (nombres y listas); best-effort, como el resto de cachés en disco. */
+    public void save(Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(source);
+                out.writeInt(names.length);
+                for (int i = 0; i < names.length; i++) {
+                    out.writeInt(ids[i]);
+                    out.writeUTF(names[i]);
+                }
+                out.writeInt(postings.size());
+                for (Map.Entry<String, int[]> e : postings.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeInt(e.getValue().length);
+                    for (int pos : e.getValue()) out.writeInt(pos);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // best-effort: el índice en memoria sigue valiendo para esta sesión
+        }
+    }
+
+    /** Lee un índice guardado con {@link #save}; vacío si no existe o no es válido. */
+    public static Optional<NameIndex> load(Path file) {
+        if (!Files.exists(file)) return Optional.empty();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return Optional.empty();
+            String source = in.readUTF();
+
+            int n = in.readInt();
+            int[] ids = new int[n];
+            String[] names = new String[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = in.readInt();
+                names[i] = in.readUTF();
+            }
+
+            int grams = in.readInt();
+            Map<String, int[]> postings = new HashMap<>(grams * 2);
+            for (int g = 0; g < grams; g++) {
+                String gram = in.readUTF();
+                int[] list = new int[in.readInt()];
+                for (int k = 0; k < list.length; k++) list[k] = in.readInt();
+                postings.put(gram, list);
+            }
+            return Optional.of(new NameIndex(ids, names, postings, source));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
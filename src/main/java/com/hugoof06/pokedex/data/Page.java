@@ -0,0 +1,25 @@
+package com.hugoof06.pokedex.data;
+
+import java.util.List;
+
+/**
+ * Página de resultados con cursor (keyset pagination).
+ * {@code nextAfterId} es el id a pasar como {@code afterId} para pedir la siguiente página,
+ * o {@link #END} si ya no hay más.
+ */
+public record Page<T>(List<T> items, int nextAfterId) {
+
+    public static final int END = -1;
+
+    public Page {
+        items = List.copyOf(items);
+    }
+
+    public static <T> Page<T> empty() {
+        return new Page<>(List.of(), END);
+    }
+
+    public boolean hasNext() {
+        return nextAfterId != END;
+    }
+}
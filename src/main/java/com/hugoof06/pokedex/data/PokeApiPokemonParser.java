@@ -0,0 +1,149 @@
+package com.hugoof06.pokedex.data;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.hugoof06.pokedex.model.Stats;
+import com.hugoof06.pokedex.model.Type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lectura en streaming de /pokemon/{id}.
+ * El documento completo pesa cientos de KB (moves, game_indices, todos los sprites...) y solo
+ * necesitamos unos pocos campos, así que en vez de construir un árbol JsonNode recorremos los
+ * tokens y saltamos (skipChildren) todo lo que no usamos.
+ */
+final class PokeApiPokemonParser {
+
+    /** Campos de /pokemon/{id} que nos interesan; la generación se resuelve aparte por speciesId. */
+    record PokemonDoc(int id, String name, int speciesId, List<Type> types, Stats stats, String spriteUrl) {}
+
+    private PokeApiPokemonParser() {
+    }
+
+    static PokemonDoc parse(JsonFactory factory, InputStream in) throws IOException {
+        try (JsonParser p = factory.createParser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected JSON object");
+            }
+
+            int id = 0;
+            String name = null;
+            int speciesId = 0;
+            List<Type> types = new ArrayList<>(2);
+            Stats stats = null;
+            String spriteUrl = null;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "id" -> id = p.getIntValue();
+                    case "name" -> name = p.getText();
+                    case "species" -> {
+                        String url = readStringField(p, "url");
+                        if (url != null) speciesId = extractTrailingInt(url);
+                    }
+                    case "sprites" -> spriteUrl = readStringField(p, "front_default");
+                    case "types" -> readTypes(p, types);
+                    case "stats" -> stats = readStats(p);
+                    default -> p.skipChildren(); // moves, game_indices, abilities...
+                }
+            }
+
+            if (id <= 0 || name == null) throw new IOException("Missing id/name");
+            if (speciesId <= 0) speciesId = id;
+            if (stats == null) stats = new Stats(0, 0, 0, 0, 0, 0);
+            return new PokemonDoc(id, name, speciesId, types, stats, spriteUrl);
+        }
+    }
+
+    /** Dentro de un objeto, devuelve el valor de texto del campo pedido y salta el resto. */
+    private static String readStringField(JsonParser p, String wanted) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        String value = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken t = p.nextToken();
+            if (field.equals(wanted) && t == JsonToken.VALUE_STRING) value = p.getText();
+            else p.skipChildren();
+        }
+        return value;
+    }
+
+    // "types": [ { "slot": 1, "type": { "name": "grass", "url": ... } }, ... ]
+    private static void readTypes(JsonParser p, List<Type> out) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return;
+        }
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                if (field.equals("type")) {
+                    String typeName = readStringField(p, "name");
+                    if (typeName != null) out.add(toTypeEnum(typeName));
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+    }
+
+    // "stats": [ { "base_stat": 45, "effort": 0, "stat": { "name": "hp", ... } }, ... ]
+    private static Stats readStats(JsonParser p) throws IOException {
+        int hp = 0, atk = 0, def = 0, spAtk = 0, spDef = 0, spd = 0;
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return new Stats(hp, atk, def, spAtk, spDef, spd);
+        }
+
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            int base = 0;
+            String statName = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "base_stat" -> base = p.getIntValue();
+                    case "stat" -> statName = readStringField(p, "name");
+                    default -> p.skipChildren();
+                }
+            }
+            if (statName == null) continue;
+
+            switch (statName) {
+                case "hp" -> hp = base;
+                case "attack" -> atk = base;
+                case "defense" -> def = base;
+                case "special-attack" -> spAtk = base;
+                case "special-defense" -> spDef = base;
+                case "speed" -> spd = base;
+            }
+        }
+        return new Stats(hp, atk, def, spAtk, spDef, spd);
+    }
+
+    static int extractTrailingInt(String url) {
+        // Ej: https://pokeapi.co/api/v2/generation/4/
+        String u = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        int slash = u.lastIndexOf('/');
+        return Integer.parseInt(u.substring(slash + 1));
+    }
+
+    static Type toTypeEnum(String apiTypeName) {
+        // "water" -> WATER, "fighting" -> FIGHTING
+        // Si algún día hay guiones, esto lo soporta: "something-name" -> SOMETHING_NAME
+        String s = apiTypeName.toUpperCase(Locale.ROOT).replace('-', '_');
+        return Type.valueOf(s);
+    }
+}
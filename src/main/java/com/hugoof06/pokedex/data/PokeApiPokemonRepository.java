@@ -2,33 +2,122 @@ package com.hugoof06.pokedex.data;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hugoof06.pokedex.cache.HttpResponseCache;
+import com.hugoof06.pokedex.data.PokeApiPokemonParser.PokemonDoc;
 import com.hugoof06.pokedex.model.Generation;
 import com.hugoof06.pokedex.model.Pokemon;
-import com.hugoof06.pokedex.model.Stats;
 import com.hugoof06.pokedex.model.Type;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class PokeApiPokemonRepository implements PokemonRepository {
 
     private static final String BASE = "https://pokeapi.co/api/v2";
+    private static final int DEFAULT_MAX_IN_FLIGHT = 8;
 
     private final HttpClient http = HttpClient.newHttpClient();
     private final ObjectMapper mapper = new ObjectMapper();
 
+    private final String baseUrl;
+    private final int maxInFlight;
+
+    // Cada fetch corre en su propio hilo virtual; el semáforo limita las peticiones HTTP simultáneas
+    private final ExecutorService fetchPool = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+
+    // Peticiones idénticas simultáneas (misma ruta / mismo id) comparten un único resultado
+    private final SingleFlight<String, JsonNode> jsonFlights = new SingleFlight<>();
+    private final SingleFlight<String, PokemonDoc> docFlights = new SingleFlight<>();
+    private final SingleFlight<Integer, Optional<Pokemon>> idFlights = new SingleFlight<>();
+
+    // nombre -> id de lo que ya han traído los listados (/generation, /type) y los propios /pokemon:
+    // así "pikachu" y "25" se piden por la misma ruta y se agrupan en un solo vuelo
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+
+    // Respuestas de endpoints de referencia (/generation, /type) con revalidación ETag / Last-Modified
+    private final HttpResponseCache httpCache;
+
+    // Índices de nombres por generación, en memoria y en disco (dataDir/names); cada generación se
+    // carga o construye en su propio vuelo, sin lock común: una descarga no frena a las demás
+    private final Path namesDir;
+    private final Map<Generation, NameIndex> nameIndexes = new ConcurrentHashMap<>();
+    private final SingleFlight<Generation, NameIndex> nameIndexFlights = new SingleFlight<>();
+
+    private final SpeciesGenerationMap generations;
+    // ReentrantLock y no synchronized: con hilos virtuales un monitor bloqueado fija el hilo portador
+    private final ReentrantLock generationsLock = new ReentrantLock();
+
+    public PokeApiPokemonRepository() {
+        this(BASE, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param baseUrl     raíz de la API (p.ej. un servidor local de pruebas en vez de pokeapi.co)
+     * @param maxInFlight máximo de peticiones HTTP en vuelo a la vez
+     */
+    public PokeApiPokemonRepository(String baseUrl, int maxInFlight) {
+        this(baseUrl, maxInFlight, Path.of(System.getProperty("user.home"), ".pokedex"));
+    }
+
+    /**
+     * @param dataDir directorio donde se guardan los datos derivados de la API (mapa de generaciones...)
+     */
+    public PokeApiPokemonRepository(String baseUrl, int maxInFlight, Path dataDir) {
+        this(baseUrl, maxInFlight, dataDir, HttpResponseCache.DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * @param referenceMaxAge tiempo que una respuesta de /generation o /type se usa sin revalidar
+     */
+    public PokeApiPokemonRepository(String baseUrl, int maxInFlight, Path dataDir, Duration referenceMaxAge) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight);
+        this.generations = new SpeciesGenerationMap(dataDir);
+        this.httpCache = new HttpResponseCache(dataDir.resolve("http"), referenceMaxAge);
+        this.namesDir = dataDir.resolve("names");
+    }
+
     @Override
     public Optional<Pokemon> findById(int id) {
         if (id <= 0) return Optional.empty();
-        return fetchPokemon(String.valueOf(id));
+        return idFlights.run(id, () -> fetchPokemon(String.valueOf(id)));
+    }
+
+    @Override
+    public PokemonBatch findByIds(Collection<Integer> ids) {
+        // todos a la vez (acotado por maxInFlight); un id repetido se pide una sola vez
+        Map<Integer, CompletableFuture<Optional<Pokemon>>> futures = new LinkedHashMap<>();
+        for (int id : ids) {
+            futures.computeIfAbsent(id, k -> CompletableFuture.supplyAsync(() -> findById(k), fetchPool));
+        }
+
+        Map<Integer, Pokemon> found = new HashMap<>();
+        futures.forEach((id, f) -> f.join().ifPresent(p -> found.put(id, p)));
+        return new PokemonBatch(List.copyOf(ids), found);
     }
 
     @Override
@@ -44,56 +133,38 @@ public class PokeApiPokemonRepository implements PokemonRepository {
         if (offset < 0) offset = 0;
         if (limit < 1) limit = 20;
 
-        int genId = generationToId(gen);
+        List<SpeciesRef> refs = generationRefs(gen);
 
-        JsonNode genJson = getJson("/generation/" + genId + "/");
-        JsonNode species = genJson.get("pokemon_species");
-        if (species == null || !species.isArray()) return List.of();
+        // aplicar offset/limit ya sobre el orden correcto
+        int end = Math.min(offset + limit, refs.size());
+        if (offset >= end) return List.of();
 
-        // 1) construir lista (id, name) desde la URL
-        record SpeciesRef(int id, String name) {}
-        List<SpeciesRef> refs = new ArrayList<>();
+        // todas las descargas de la página en paralelo; fetchAll conserva el orden
+        return fetchAll(refs.subList(offset, end));
+    }
 
-        for (JsonNode sp : species) {
-            String name = sp.get("name").asText();
-            String url = sp.get("url").asText(); // .../pokemon-species/25/
-            int id = extractTrailingInt(url);
-            refs.add(new SpeciesRef(id, name));
-        }
+    @Override
+    public Page<Pokemon> listAfter(Generation gen, int afterId, int limit) {
+        if (limit < 1) limit = 20;
 
-        // 2) ordenar por ID (Pokedex nacional dentro de la generación)
-        refs.sort(Comparator.comparingInt(SpeciesRef::id));
+        List<SpeciesRef> refs = generationRefs(gen);
 
-        // 3) aplicar offset/limit ya sobre el orden correcto
-        int end = Math.min(offset + limit, refs.size());
-        if (offset >= end) return List.of();
+        // búsqueda binaria del primer id > afterId: la página N cuesta lo mismo que la 1
+        int from = firstAfter(refs, afterId);
+        int end = Math.min(from + limit, refs.size());
+        if (from >= end) return Page.empty();
 
-        List<Pokemon> page = new ArrayList<>();
-        for (int i = offset; i < end; i++) {
-            SpeciesRef r = refs.get(i);
-            fetchPokemon(r.name()).ifPresent(page::add);
-        }
+        List<Pokemon> items = fetchAll(refs.subList(from, end));
 
-        // ya vienen “casi” ordenados, pero por seguridad:
-        page.sort(Comparator.comparingInt(Pokemon::getId));
-        return page;
+        int next = end < refs.size() ? refs.get(end - 1).id() : Page.END;
+        return new Page<>(items, next);
     }
 
 
     @Override
     public List<Pokemon> findAll(Generation gen) {
-        // OJO: esto descarga TODA la generación (Gen1=151 está OK; más adelante optimizamos).
-        List<Pokemon> all = new ArrayList<>();
-        int offset = 0;
-        int limit = 50;
-
-        while (true) {
-            List<Pokemon> page = list(gen, offset, limit);
-            if (page.isEmpty()) break;
-            all.addAll(page);
-            offset += limit;
-        }
-        return all;
+        // OJO: esto descarga TODA la generación, pero en paralelo (acotado por maxInFlight)
+        return fetchAll(generationRefs(gen));
     }
 
     @Override
@@ -116,47 +187,57 @@ public class PokeApiPokemonRepository implements PokemonRepository {
         if (offset < 0) offset = 0;
         if (limit < 1) limit = 20;
 
-        // /type/{name} devuelve una lista "pokemon" con referencias :contentReference[oaicite:1]{index=1}
-        String typeName = type.name().toLowerCase(Locale.ROOT);
-        JsonNode typeJson = getJson("/type/" + typeName + "/");
-        JsonNode arr = typeJson.get("pokemon");
-        if (arr == null || !arr.isArray()) return List.of();
-
-        // Construimos refs (id, name) y ordenamos por id
-        record Ref(int id, String name) {}
-        List<Ref> refs = new ArrayList<>();
-        for (JsonNode entry : arr) {
-            JsonNode p = entry.get("pokemon");
-            String name = p.get("name").asText();
-            String url = p.get("url").asText();          // .../pokemon/25/
-            int id = extractTrailingInt(url);
-            refs.add(new Ref(id, name));
-        }
-        refs.sort(Comparator.comparingInt(Ref::id));
+        List<SpeciesRef> refs = inGeneration(typeRefs(type), gen);
 
-        // Ahora aplicamos offset/limit sobre los que sean de esa generación
+        // Ahora aplicamos offset/limit sobre los que sean de esa generación.
+        // Se descarga por lotes en paralelo y se para en cuanto la página está completa.
         List<Pokemon> page = new ArrayList<>();
         int seenMatching = 0;
+        int batch = Math.max(limit, maxInFlight);
 
-        for (Ref r : refs) {
-            Optional<Pokemon> opt = fetchPokemon(r.name()); // esto ya cachea luego por el wrapper
-            if (opt.isEmpty()) continue;
+        for (int from = 0; from < refs.size() && page.size() < limit; from += batch) {
+            List<SpeciesRef> chunk = refs.subList(from, Math.min(from + batch, refs.size()));
+            for (Pokemon p : fetchAll(chunk)) { // esto ya cachea luego por el wrapper
+                if (p.getGeneration() != gen) continue;
 
-            Pokemon p = opt.get();
-            if (p.getGeneration() != gen) continue;
+                if (seenMatching < offset) {
+                    seenMatching++;
+                    continue;
+                }
 
-            if (seenMatching < offset) {
+                page.add(p);
                 seenMatching++;
-                continue;
+
+                if (page.size() >= limit) break;
             }
+        }
+
+        return page;
+    }
+
+    @Override
+    public Page<Pokemon> listByTypeAfter(Type type, Generation gen, int afterId, int limit) {
+        if (limit < 1) limit = 20;
+
+        List<SpeciesRef> refs = inGeneration(typeRefs(type), gen);
+        if (refs.isEmpty()) return Page.empty();
 
-            page.add(p);
-            seenMatching++;
+        // Los refs con id <= afterId ni se descargan: el cursor salta directamente a su posición
+        List<Pokemon> items = new ArrayList<>();
+        int batch = Math.max(limit, maxInFlight);
 
-            if (page.size() >= limit) break;
+        for (int from = firstAfter(refs, afterId); from < refs.size() && items.size() < limit; from += batch) {
+            List<SpeciesRef> chunk = refs.subList(from, Math.min(from + batch, refs.size()));
+            for (Pokemon p : fetchAll(chunk)) {
+                if (p.getGeneration() != gen) continue;
+                items.add(p);
+                if (items.size() >= limit) break;
+            }
         }
 
-        return page;
+        if (items.size() < limit) return new Page<>(items, Page.END);
+        int lastId = items.get(items.size() - 1).getId();
+        return new Page<>(items, lastId < refs.get(refs.size() - 1).id() ? lastId : Page.END);
     }
 
     @Override
@@ -165,74 +246,220 @@ public class PokeApiPokemonRepository implements PokemonRepository {
         if (limit < 1) limit = 20;
 
         String q = (query == null) ? "" : query.trim().toLowerCase(Locale.ROOT);
-        if (q.isEmpty()) return List.of();
 
-        int genId = generationToId(gen);
+        // consulta vacía = todos los nombres de la generación (sirve de diccionario)
+        return nameIndex(gen).search(q, offset, limit);
+    }
 
-        JsonNode genJson = getJson("/generation/" + genId + "/");
-        JsonNode species = genJson.get("pokemon_species");
-        if (species == null || !species.isArray()) return List.of();
+    // ----------------- Internals -----------------
 
-        record SpeciesRef(int id, String name) {}
-        List<SpeciesRef> matches = new ArrayList<>();
+    /**
+     * Descarga los refs en paralelo (como mucho maxInFlight peticiones a la vez) y devuelve
+     * los que existen en el mismo orden que los refs de entrada.
+     */
+    private List<Pokemon> fetchAll(List<SpeciesRef> refs) {
+        List<CompletableFuture<Optional<Pokemon>>> futures = new ArrayList<>(refs.size());
+        for (SpeciesRef r : refs) {
+            futures.add(CompletableFuture.supplyAsync(() -> fetchPokemon(String.valueOf(r.id())), fetchPool));
+        }
 
-        for (JsonNode sp : species) {
-            String name = sp.get("name").asText(); // ya viene en minúsculas
-            if (!name.contains(q)) continue;
+        List<Pokemon> out = new ArrayList<>(refs.size());
+        for (CompletableFuture<Optional<Pokemon>> f : futures) {
+            f.join().ifPresent(out::add);
+        }
+        return out;
+    }
 
-            String url = sp.get("url").asText();   // .../pokemon-species/25/
-            int id = extractTrailingInt(url);
-            matches.add(new SpeciesRef(id, name));
+    private record SpeciesRef(int id, String name) {}
+
+    /** Índice de nombres de la generación: memoria, luego disco, y si no se construye desde /generation. */
+    private NameIndex nameIndex(Generation gen) {
+        NameIndex idx = nameIndexes.get(gen);
+        if (idx != null) return idx;
+
+        return nameIndexFlights.run(gen, () -> {
+            NameIndex loaded = nameIndexes.get(gen); // puede que otro vuelo acabe de dejarlo
+            if (loaded == null) {
+                loaded = loadOrBuildNameIndex(gen);
+                nameIndexes.put(gen, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * El índice de disco solo vale si sale de la misma versión (ETag...) de /generation que la que hay
+     * en la caché HTTP. Con esa respuesta aún fresca no se toca la red; si ha caducado se revalida
+     * y, si ha cambiado, el índice se rehace.
+     */
+    private NameIndex loadOrBuildNameIndex(Generation gen) {
+        String path = generationPath(gen);
+        Path file = namesDir.resolve("gen_" + generationToId(gen) + ".idx");
+        Optional<NameIndex> saved = NameIndex.load(file);
+
+        Optional<HttpResponseCache.Entry> cached = httpCache.get(path);
+        if (saved.isPresent() && cached.isPresent() && httpCache.isFresh(cached.get())
+                && saved.get().source().equals(cached.get().version())) {
+            return saved.get();
         }
 
-        // orden “pokedex” dentro de la generación
-        matches.sort(Comparator.comparingInt(SpeciesRef::id));
+        List<SpeciesRef> refs = generationRefs(gen); // revalida o descarga
+        String version = httpCache.get(path).map(HttpResponseCache.Entry::version).orElse("");
+        if (saved.isPresent() && saved.get().source().equals(version)) return saved.get(); // 304
 
-        if (offset >= matches.size()) return List.of();
-        int to = Math.min(offset + limit, matches.size());
+        Map<Integer, String> names = new HashMap<>();
+        for (SpeciesRef r : refs) names.put(r.id(), r.name());
+        NameIndex idx = NameIndex.build(names, version);
+        idx.save(file);
+        return idx;
+    }
+
+    /** Especies de la generación (id, nombre) ordenadas por id, desde /generation/{id}. */
+    private List<SpeciesRef> generationRefs(Generation gen) {
+        JsonNode genJson = getJson(generationPath(gen));
+        JsonNode species = genJson.get("pokemon_species");
+        if (species == null || !species.isArray()) return List.of();
 
-        List<String> page = new ArrayList<>();
-        for (int i = offset; i < to; i++) {
-            page.add(matches.get(i).name());
+        // construir lista (id, name) desde la URL
+        List<SpeciesRef> refs = new ArrayList<>();
+        for (JsonNode sp : species) {
+            String name = sp.get("name").asText();
+            String url = sp.get("url").asText(); // .../pokemon-species/25/
+            refs.add(new SpeciesRef(PokeApiPokemonParser.extractTrailingInt(url), name));
         }
-        return page;
+        remember(refs);
+
+        // ordenar por ID (Pokedex nacional dentro de la generación)
+        refs.sort(Comparator.comparingInt(SpeciesRef::id));
+        return refs;
     }
 
+    /** Pokémon del tipo (id, nombre) ordenados por id, desde /type/{name}. */
+    private List<SpeciesRef> typeRefs(Type type) {
+        // /type/{name} devuelve una lista "pokemon" con referencias
+        String typeName = type.name().toLowerCase(Locale.ROOT);
+        JsonNode typeJson = getJson("/type/" + typeName + "/");
+        JsonNode arr = typeJson.get("pokemon");
+        if (arr == null || !arr.isArray()) return List.of();
 
+        List<SpeciesRef> refs = new ArrayList<>();
+        for (JsonNode entry : arr) {
+            JsonNode p = entry.get("pokemon");
+            String name = p.get("name").asText();
+            String url = p.get("url").asText();          // .../pokemon/25/
+            refs.add(new SpeciesRef(PokeApiPokemonParser.extractTrailingInt(url), name));
+        }
+        remember(refs);
+        refs.sort(Comparator.comparingInt(SpeciesRef::id));
+        return refs;
+    }
 
-    // ----------------- Internals -----------------
+    /**
+     * Descarta (sin descargar nada) los refs que el mapa de generaciones sabe que son de otra generación.
+     * Los ids que el mapa no conoce (formas alternativas, ids 10000+) se mantienen y se filtran tras el fetch.
+     */
+    private List<SpeciesRef> inGeneration(List<SpeciesRef> refs, Generation gen) {
+        ensureGenerationMap();
+        List<SpeciesRef> out = new ArrayList<>(refs.size());
+        for (SpeciesRef r : refs) {
+            Optional<Generation> g = generations.get(r.id());
+            if (g.isEmpty() || g.get() == gen) out.add(r);
+        }
+        return out;
+    }
 
-    private Optional<Pokemon> fetchPokemon(String idOrName) {
+    /** Carga el mapa species-id -> generación desde disco o, la primera vez, desde los nueve /generation/{id}. */
+    private void ensureGenerationMap() {
+        if (generations.isLoaded()) return;
+        generationsLock.lock();
         try {
-            JsonNode p = getJson("/pokemon/" + idOrName + "/"); // :contentReference[oaicite:3]{index=3}
-            
-            String spriteUrl = null;
-            JsonNode sprites = p.get("sprites");
-            if (sprites != null && sprites.get("front_default") != null && !sprites.get("front_default").isNull()) {
-                spriteUrl = sprites.get("front_default").asText();
+            if (generations.isLoaded() || generations.load()) return;
+
+            Map<Generation, CompletableFuture<List<SpeciesRef>>> futures = new EnumMap<>(Generation.class);
+            for (Generation g : Generation.values()) {
+                futures.put(g, CompletableFuture.supplyAsync(() -> generationRefs(g), fetchPool));
             }
 
-            int id = p.get("id").asInt();
+            try {
+                Map<Generation, List<Integer>> data = new EnumMap<>(Generation.class);
+                futures.forEach((g, f) -> data.put(g, f.join().stream().map(SpeciesRef::id).toList()));
+                generations.save(data);
+            } catch (RuntimeException e) {
+                // sin red o API caída: seguimos con /pokemon-species/{id} como antes
+            }
+        } finally {
+            generationsLock.unlock();
+        }
+    }
 
-            String name = capitalize(p.get("name").asText());
+    /** Generación de una especie: primero el mapa, y solo si no la conoce, /pokemon-species/{id}. */
+    private Generation generationOf(int speciesId) {
+        ensureGenerationMap();
+        return generations.get(speciesId).orElseGet(() -> fetchGenerationForSpecies(speciesId));
+    }
 
-            List<Type> types = new ArrayList<>();
-            for (JsonNode t : p.get("types")) {
-                String typeName = t.get("type").get("name").asText();
-                types.add(toTypeEnum(typeName));
-            }
+    /** Índice del primer ref con id > afterId (refs ordenados por id). */
+    private static int firstAfter(List<SpeciesRef> refs, int afterId) {
+        int lo = 0, hi = refs.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (refs.get(mid).id() <= afterId) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
 
-            Stats stats = parseStats(p.get("stats"));
+    private void remember(List<SpeciesRef> refs) {
+        for (SpeciesRef r : refs) {
+            if (r.id() > 0) idsByName.putIfAbsent(r.name(), r.id());
+        }
+    }
 
-            // Generación: viene en /pokemon-species/{id} dentro del campo "generation" :contentReference[oaicite:4]{index=4}
-            Generation gen = fetchGenerationForSpecies(id);
+    /** Ruta de /pokemon siempre por id cuando se conoce: es la clave con la que se agrupan los vuelos. */
+    private String pokemonPath(String idOrName) {
+        Integer id = idsByName.get(idOrName);
+        return "/pokemon/" + (id != null ? id : idOrName) + "/";
+    }
 
-            return Optional.of(new Pokemon(id, name, gen, types, stats, spriteUrl));
+    private Optional<Pokemon> fetchPokemon(String idOrName) {
+        try {
+            String path = pokemonPath(idOrName);
+            PokemonDoc d = docFlights.run(path, () -> fetchPokemonDoc(path));
+            idsByName.putIfAbsent(d.name(), d.id());
+
+            // Generación: por el id de especie (no siempre coincide con el id, p.ej. formas alternativas)
+            Generation gen = generationOf(d.speciesId());
+
+            return Optional.of(new Pokemon(d.id(), capitalize(d.name()), gen, d.types(), d.stats(), d.spriteUrl()));
         } catch (Exception e) {
             return Optional.empty();
         }
     }
 
+    /**
+     * /pokemon/{id} leído en streaming: sin String intermedio ni árbol JsonNode.
+     * send() vuelve con las cabeceras y el cuerpo aún llega mientras se parsea, así que el permiso
+     * de inFlight se suelta cuando el stream ya está leído y cerrado, no antes.
+     */
+    private PokemonDoc fetchPokemonDoc(String path) {
+        try {
+            inFlight.acquire();
+            try {
+                HttpResponse<InputStream> resp = http.send(request(path).build(), HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = resp.body()) {
+                    if (resp.statusCode() != 200) {
+                        throw new RuntimeException("HTTP " + resp.statusCode() + " for " + path);
+                    }
+                    return PokeApiPokemonParser.parse(mapper.getFactory(), body);
+                }
+            } finally {
+                inFlight.release();
+            }
+        } catch (IOException | InterruptedException e) {
+            throw new RuntimeException("Request failed for " + path, e);
+        }
+    }
+
     private Generation fetchGenerationForSpecies(int id) {
         JsonNode s = getJson("/pokemon-species/" + id + "/"); // :contentReference[oaicite:5]{index=5}
         JsonNode g = s.get("generation");
@@ -240,47 +467,99 @@ public class PokeApiPokemonRepository implements PokemonRepository {
 
         // "url": ".../generation/4/" -> sacamos el número
         String url = g.get("url").asText();
-        int genId = extractTrailingInt(url);
+        int genId = PokeApiPokemonParser.extractTrailingInt(url);
         return idToGeneration(genId);
     }
 
-    private Stats parseStats(JsonNode statsArr) {
-        int hp = 0, atk = 0, def = 0, spAtk = 0, spDef = 0, spd = 0;
+    /** Llamadas a getJson / fetch de /pokemon que reutilizaron una petición idéntica en vuelo. */
+    public long coalescedRequests() {
+        return jsonFlights.coalesced() + docFlights.coalesced();
+    }
 
-        for (JsonNode s : statsArr) {
-            String statName = s.get("stat").get("name").asText();
-            int base = s.get("base_stat").asInt();
+    /** Llamadas a findById que reutilizaron una búsqueda del mismo id en vuelo. */
+    public long coalescedLookups() {
+        return idFlights.coalesced();
+    }
+
+    public HttpResponseCache httpCache() {
+        return httpCache;
+    }
 
-            switch (statName) {
-                case "hp" -> hp = base;
-                case "attack" -> atk = base;
-                case "defense" -> def = base;
-                case "special-attack" -> spAtk = base;
-                case "special-defense" -> spDef = base;
-                case "speed" -> spd = base;
+    private JsonNode getJson(String path) {
+        return jsonFlights.run(path, () -> isReference(path) ? fetchReferenceJson(path) : fetchJson(path));
+    }
+
+    /** Listados grandes y casi estáticos: merecen la caché HTTP persistente. */
+    private static boolean isReference(String path) {
+        return path.startsWith("/generation/") || path.startsWith("/type/");
+    }
+
+    private JsonNode fetchJson(String path) {
+        try {
+            HttpResponse<String> resp = send(request(path).build());
+            if (resp.statusCode() != 200) {
+                throw new RuntimeException("HTTP " + resp.statusCode() + " for " + path);
             }
+            return mapper.readTree(resp.body());
+        } catch (IOException | InterruptedException e) {
+            throw new RuntimeException("Request failed for " + path, e);
         }
-        return new Stats(hp, atk, def, spAtk, spDef, spd);
     }
 
-    private JsonNode getJson(String path) {
+    /**
+     * Como fetchJson pero pasando por la caché HTTP: entrada fresca -> sin red;
+     * entrada caducada -> petición condicional, y si vuelve 304 se reutiliza el JSON ya parseado.
+     */
+    private JsonNode fetchReferenceJson(String path) {
         try {
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create(BASE + path))
-                    .GET()
-                    .header("Accept", "application/json")
-                    .build();
+            Optional<HttpResponseCache.Entry> cached = httpCache.get(path);
+            if (cached.isPresent() && httpCache.isFresh(cached.get())) {
+                return httpCache.json(cached.get());
+            }
+
+            HttpRequest.Builder req = request(path);
+            cached.ifPresent(e -> {
+                if (e.etag() != null) req.header("If-None-Match", e.etag());
+                if (e.lastModified() != null) req.header("If-Modified-Since", e.lastModified());
+            });
 
-            HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> resp = send(req.build());
+            if (resp.statusCode() == 304 && cached.isPresent()) {
+                httpCache.revalidated(cached.get());
+                return httpCache.json(cached.get());
+            }
             if (resp.statusCode() != 200) {
                 throw new RuntimeException("HTTP " + resp.statusCode() + " for " + path);
             }
-            return mapper.readTree(resp.body());
+            return httpCache.store(path, resp.body(),
+                    resp.headers().firstValue("ETag").orElse(null),
+                    resp.headers().firstValue("Last-Modified").orElse(null));
         } catch (IOException | InterruptedException e) {
             throw new RuntimeException("Request failed for " + path, e);
         }
     }
 
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + path))
+                .GET()
+                .header("Accept", "application/json");
+    }
+
+    /** http.send respetando el límite de peticiones en vuelo. */
+    private HttpResponse<String> send(HttpRequest req) throws IOException, InterruptedException {
+        inFlight.acquire();
+        try {
+            return http.send(req, HttpResponse.BodyHandlers.ofString());
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private static String generationPath(Generation g) {
+        return "/generation/" + generationToId(g) + "/";
+    }
+
     private static int generationToId(Generation g) {
         return switch (g) {
             case GEN_1 -> 1;
@@ -310,20 +589,6 @@ public class PokeApiPokemonRepository implements PokemonRepository {
         };
     }
 
-    private static int extractTrailingInt(String url) {
-        // Ej: https://pokeapi.co/api/v2/generation/4/
-        String u = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
-        int slash = u.lastIndexOf('/');
-        return Integer.parseInt(u.substring(slash + 1));
-    }
-
-    private static Type toTypeEnum(String apiTypeName) {
-        // "water" -> WATER, "fighting" -> FIGHTING
-        // Si algún día hay guiones, esto lo soporta: "something-name" -> SOMETHING_NAME
-        String s = apiTypeName.toUpperCase(Locale.ROOT).replace('-', '_');
-        return Type.valueOf(s);
-    }
-
     private static String capitalize(String s) {
         if (s == null || s.isEmpty()) return s;
         return Character.toUpperCase(s.charAt(0)) + s.substring(1);
@@ -0,0 +1,45 @@
+package com.hugoof06.pokedex.data;
+
+import com.hugoof06.pokedex.model.Pokemon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resultado de buscar varios ids de una vez: los ids en el orden pedido y los que se encontraron.
+ * Los que no están se ven explícitamente en {@link #missing()}.
+ */
+public record PokemonBatch(List<Integer> ids, Map<Integer, Pokemon> byId) {
+
+    public PokemonBatch {
+        ids = List.copyOf(ids);
+        byId = Map.copyOf(byId);
+    }
+
+    public Optional<Pokemon> get(int id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /** Encontrados, en el orden pedido. */
+    public List<Pokemon> found() {
+        List<Pokemon> out = new ArrayList<>(byId.size());
+        for (int id : ids) {
+            Pokemon p = byId.get(id);
+            if (p != null) out.add(p);
+        }
+        return out;
+    }
+
+    /** Ids sin resultado, en el orden pedido. */
+    public List<Integer> missing() {
+        List<Integer> out = new ArrayList<>();
+        for (int id : ids) if (!byId.containsKey(id)) out.add(id);
+        return out;
+    }
+
+    public boolean isComplete() {
+        return missing().isEmpty();
+    }
+}
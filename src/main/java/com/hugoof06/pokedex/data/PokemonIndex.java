@@ -0,0 +1,271 @@
+package com.hugoof06.pokedex.data;
+
+import com.hugoof06.pokedex.model.Generation;
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stat;
+import com.hugoof06.pokedex.model.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índices en memoria sobre un conjunto fijo de Pokémon.
+ * Se construye una sola vez (al cargar los datos) y después es de solo lectura; para ampliarlo,
+ * {@link #plus} da otro índice que reutiliza lo ya construido de las generaciones que no cambian:
+ * - id -> Pokemon en un array denso
+ * - nombre en minúsculas -> Pokemon en un HashMap
+ * - un BitSet de ids por generación y otro por tipo
+ * - stats en columnas ({@link StatColumns}), global y por generación, para rangos y top-K
+ * - un {@link StatKdTree}, global y por generación, para buscar Pokémon de stats parecidos
+ *
+ * Las columnas y los KD-trees solo los usan las consultas por stats: se construyen la primera vez
+ * que se piden, no al crear el índice (la mayoría de usos solo necesitan ids, nombres y bitsets).
+ */
+public final class PokemonIndex {
+
+    private final Pokemon[] byId;
+    private final Map<String, Pokemon> byName;
+    private final EnumMap<Generation, BitSet> genBits = new EnumMap<>(Generation.class);
+    private final EnumMap<Type, BitSet> typeBits = new EnumMap<>(Type.class);
+    private final EnumMap<Generation, List<Pokemon>> genLists = new EnumMap<>(Generation.class);
+    private final List<Pokemon> all;
+
+    // perezosos: se construyen al pedirlos (ReentrantLock: el índice se consulta desde hilos virtuales)
+    private final ReentrantLock lazyLock = new ReentrantLock();
+    private volatile StatColumns stats;
+    private volatile StatKdTree similarity;
+    private final EnumMap<Generation, StatColumns> genStats = new EnumMap<>(Generation.class);
+    private final EnumMap<Generation, StatKdTree> genSimilarity = new EnumMap<>(Generation.class);
+
+    public PokemonIndex(List<Pokemon> pokemons) {
+        int maxId = 0;
+        for (Pokemon p : pokemons) maxId = Math.max(maxId, p.getId());
+
+        this.byId = new Pokemon[maxId + 1];
+        this.byName = new HashMap<>(pokemons.size() * 2);
+
+        for (Generation g : Generation.values()) genBits.put(g, new BitSet(maxId + 1));
+        for (Type t : Type.values()) typeBits.put(t, new BitSet(maxId + 1));
+
+        for (Pokemon p : pokemons) {
+            int id = p.getId();
+            if (id <= 0) continue;
+            byId[id] = p;
+            byName.put(p.getName().toLowerCase(Locale.ROOT), p);
+            genBits.get(p.getGeneration()).set(id);
+            for (Type t : p.getTypes()) typeBits.get(t).set(id);
+        }
+
+        List<Pokemon> sorted = new ArrayList<>(pokemons.size());
+        for (Pokemon p : byId) if (p != null) sorted.add(p);
+        this.all = Collections.unmodifiableList(sorted);
+
+        for (Generation g : Generation.values()) {
+            genLists.put(g, Collections.unmodifiableList(materialize(genBits.get(g))));
+        }
+    }
+
+    /** Copia de {@code base} con {@code more} añadidos (ver {@link #plus}). */
+    private PokemonIndex(PokemonIndex base, List<Pokemon> more) {
+        int maxId = base.maxId();
+        for (Pokemon p : more) maxId = Math.max(maxId, p.getId());
+
+        this.byId = Arrays.copyOf(base.byId, maxId + 1);
+        this.byName = new HashMap<>(base.byName);
+        base.genBits.forEach((g, bits) -> genBits.put(g, (BitSet) bits.clone()));
+        base.typeBits.forEach((t, bits) -> typeBits.put(t, (BitSet) bits.clone()));
+
+        EnumSet<Generation> changed = EnumSet.noneOf(Generation.class);
+        for (Pokemon p : more) {
+            int id = p.getId();
+            if (id <= 0) continue;
+            Pokemon old = byId[id];
+            if (old != null) {
+                // reemplaza a uno que ya estaba: sus bits y su nombre dejan de valer
+                changed.add(old.getGeneration());
+                genBits.get(old.getGeneration()).clear(id);
+                for (Type t : old.getTypes()) typeBits.get(t).clear(id);
+                byName.remove(old.getName().toLowerCase(Locale.ROOT), old);
+            }
+            byId[id] = p;
+            byName.put(p.getName().toLowerCase(Locale.ROOT), p);
+            genBits.get(p.getGeneration()).set(id);
+            for (Type t : p.getTypes()) typeBits.get(t).set(id);
+            changed.add(p.getGeneration());
+        }
+
+        List<Pokemon> sorted = new ArrayList<>(base.all.size() + more.size());
+        for (Pokemon p : byId) if (p != null) sorted.add(p);
+        this.all = Collections.unmodifiableList(sorted);
+
+        // lo de las generaciones que no cambian se comparte tal cual, ya construido o no
+        base.lazyLock.lock();
+        try {
+            for (Generation g : Generation.values()) {
+                if (changed.contains(g)) {
+                    genLists.put(g, Collections.unmodifiableList(materialize(genBits.get(g))));
+                } else {
+                    genLists.put(g, base.genLists.get(g));
+                    StatColumns columns = base.genStats.get(g);
+                    if (columns != null) genStats.put(g, columns);
+                    StatKdTree tree = base.genSimilarity.get(g);
+                    if (tree != null) genSimilarity.put(g, tree);
+                }
+            }
+        } finally {
+            base.lazyLock.unlock();
+        }
+    }
+
+    /**
+     * Índice con los Pokémon de este más {@code more} (p.ej. una generación recién cargada); un id
+     * repetido se queda con el de {@code more}. Este no cambia. Solo se recalcula lo de las generaciones
+     * afectadas: las columnas y KD-trees del resto se reutilizan.
+     */
+    public PokemonIndex plus(List<Pokemon> more) {
+        return more.isEmpty() ? this : new PokemonIndex(this, more);
+    }
+
+    /** Todos los Pokémon en orden de pokedex. */
+    public List<Pokemon> all() {
+        return all;
+    }
+
+    /** Pokémon de una generación en orden de pokedex (lista precalculada). */
+    public List<Pokemon> all(Generation gen) {
+        return genLists.get(gen);
+    }
+
+    public int maxId() {
+        return byId.length - 1;
+    }
+
+    public Optional<Pokemon> byId(int id) {
+        if (id <= 0 || id >= byId.length) return Optional.empty();
+        return Optional.ofNullable(byId[id]);
+    }
+
+    public Optional<Pokemon> byName(String name) {
+        if (name == null) return Optional.empty();
+        return Optional.ofNullable(byName.get(name.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    /** Copia del BitSet de ids de la generación (se puede modificar libremente). */
+    public BitSet generationBits(Generation gen) {
+        return (BitSet) genBits.get(gen).clone();
+    }
+
+    /** Copia del BitSet de ids del tipo (se puede modificar libremente). */
+    public BitSet typeBits(Type type) {
+        return (BitSet) typeBits.get(type).clone();
+    }
+
+    /** Valor del stat para el id (0 si no hay Pokémon con ese id). */
+    public int stat(Stat stat, int id) {
+        return statColumns().value(stat, id);
+    }
+
+    /** Columnas de stats de todos los Pokémon del índice. */
+    public StatColumns statColumns() {
+        StatColumns s = stats;
+        if (s != null) return s;
+        lazyLock.lock();
+        try {
+            if (stats == null) stats = new StatColumns(all);
+            return stats;
+        } finally {
+            lazyLock.unlock();
+        }
+    }
+
+    /** Columnas de stats de una generación (top-K y rangos dentro de la generación). */
+    public StatColumns statColumns(Generation gen) {
+        lazyLock.lock();
+        try {
+            return genStats.computeIfAbsent(gen, g -> new StatColumns(genLists.get(g)));
+        } finally {
+            lazyLock.unlock();
+        }
+    }
+
+    /** KD-tree de stats de todos los Pokémon del índice. */
+    public StatKdTree similarityTree() {
+        StatKdTree t = similarity;
+        if (t != null) return t;
+        lazyLock.lock();
+        try {
+            if (similarity == null) similarity = new StatKdTree(all);
+            return similarity;
+        } finally {
+            lazyLock.unlock();
+        }
+    }
+
+    /** KD-tree de stats de una generación. */
+    public StatKdTree similarityTree(Generation gen) {
+        lazyLock.lock();
+        try {
+            return genSimilarity.computeIfAbsent(gen, g -> new StatKdTree(genLists.get(g)));
+        } finally {
+            lazyLock.unlock();
+        }
+    }
+
+    /** Ids de la generación que además tienen el tipo dado (intersección de bitsets). */
+    public BitSet typeInGeneration(Type type, Generation gen) {
+        BitSet bits = generationBits(gen);
+        bits.and(typeBits.get(type));
+        return bits;
+    }
+
+    /** Convierte un BitSet de ids en la lista de Pokémon correspondiente (orden de pokedex). */
+    public List<Pokemon> materialize(BitSet ids) {
+        List<Pokemon> out = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            if (id < byId.length && byId[id] != null) out.add(byId[id]);
+        }
+        return out;
+    }
+
+    /** Igual que {@link #materialize(BitSet)} pero saltando {@code offset} y devolviendo como mucho {@code limit}. */
+    public List<Pokemon> slice(BitSet ids, int offset, int limit) {
+        List<Pokemon> out = new ArrayList<>(Math.min(limit, ids.cardinality()));
+        int skipped = 0;
+        for (int id = ids.nextSetBit(0); id >= 0 && out.size() < limit; id = ids.nextSetBit(id + 1)) {
+            if (id >= byId.length || byId[id] == null) continue;
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            out.add(byId[id]);
+        }
+        return out;
+    }
+
+    /** Página por cursor sobre la generación, sin copiar el BitSet. */
+    public Page<Pokemon> pageAfter(Generation gen, int afterId, int limit) {
+        return pageAfter(genBits.get(gen), afterId, limit);
+    }
+
+    /** Página por cursor: los primeros {@code limit} ids del BitSet mayores que {@code afterId}. */
+    public Page<Pokemon> pageAfter(BitSet ids, int afterId, int limit) {
+        List<Pokemon> out = new ArrayList<>(limit);
+        int id = ids.nextSetBit(Math.max(afterId + 1, 0));
+        while (id >= 0 && out.size() < limit) {
+            if (id < byId.length && byId[id] != null) out.add(byId[id]);
+            id = ids.nextSetBit(id + 1);
+        }
+        if (id < 0 || out.isEmpty()) return new Page<>(out, Page.END);
+        return new Page<>(out, out.get(out.size() - 1).getId());
+    }
+}
@@ -1,5 +1,6 @@
 package com.hugoof06.pokedex.data;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,15 +16,35 @@ public interface PokemonRepository {
 
     List<Pokemon> list(Generation gen, int offset, int limit);
 
+    /**
+     * Paginación por cursor: devuelve hasta {@code limit} Pokémon de la generación con id mayor que {@code afterId}
+     * (0 para empezar desde el principio), en orden de pokedex.
+     */
+    Page<Pokemon> listAfter(Generation gen, int afterId, int limit);
+
     Optional<Pokemon> findById(int id);
 
+    /** Varios ids de una vez; el resultado conserva el orden pedido e indica los que no existen. */
+    PokemonBatch findByIds(Collection<Integer> ids);
+
     Optional<Pokemon> findByName(String name);
 
     List<Pokemon> findByType(Type type, Generation gen);
 
     List<Pokemon> listByType(Type type, Generation gen, int offset, int limit);
 
+    /** Igual que {@link #listAfter(Generation, int, int)} pero filtrando por tipo. */
+    Page<Pokemon> listByTypeAfter(Type type, Generation gen, int afterId, int limit);
+
     List<String> searchSpeciesNames(Generation gen, String query, int offset, int limit);
 
+    /**
+     * Índice en memoria con todos los Pokémon, si la fuente ya tiene uno (p.ej. el dataset JSON):
+     * así quien necesite un {@link PokemonIndex} no construye otro igual. Vacío por defecto.
+     */
+    default Optional<PokemonIndex> loadedIndex() {
+        return Optional.empty();
+    }
+
 }
 
@@ -0,0 +1,186 @@
+package com.hugoof06.pokedex.data;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hugoof06.pokedex.model.Generation;
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stats;
+import com.hugoof06.pokedex.model.Type;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot binario precompilado del dataset JSON.
+ *
+ * Se genera en tiempo de build (mvn process-classes, ver pom.xml) a partir de pokemon_gen1.json y
+ * se carga con una sola lectura secuencial, decodificando a arrays primitivos sin pasar por el
+ * binding reflexivo de Jackson. Guarda el tamaño, la fecha de modificación y el CRC32 del JSON del que
+ * sale: si tamaño y fecha coinciden no hace falta ni abrir el JSON; si no, se lee para comparar el CRC
+ * (así un JSON editado sin regenerar el snapshot se detecta, y uno solo copiado de nuevo no lo invalida).
+ *
+ * Formato: magic, versión, crc, tamaño y fecha del JSON, n, y luego columnas: ids (int), generación (byte),
+ * número de tipos (byte) + tipos (byte), stats (6 x short), nombre y sprite (UTF-8 con longitud).
+ */
+public final class PokemonSnapshot {
+
+    private static final int MAGIC = 0x50445853; // "PDXS"
+    private static final int VERSION = 2;
+    // magic, versión, crc, tamaño, fecha, n
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 8 + 4;
+
+    private static final Generation[] GENS = Generation.values();
+    private static final Type[] TYPES = Type.values();
+
+    private PokemonSnapshot() {
+    }
+
+    /** Generador usado por el build: {@code PokemonSnapshot <json de entrada> <bin de salida>}. */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: PokemonSnapshot <input.json> <output.bin>");
+            System.exit(2);
+        }
+        Path in = Path.of(args[0]);
+        Path out = Path.of(args[1]);
+
+        byte[] json = Files.readAllBytes(in);
+        List<Pokemon> all = new ObjectMapper().readValue(json, new TypeReference<List<Pokemon>>() {});
+
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        Files.write(out, encode(all, crc32(json), json.length, Files.getLastModifiedTime(in).toMillis()));
+        System.out.println("Pokemon snapshot: " + all.size() + " entries -> " + out);
+    }
+
+    public static byte[] encode(List<Pokemon> all, int sourceCrc, long sourceSize, long sourceModified) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(sourceCrc);
+        out.writeLong(sourceSize);
+        out.writeLong(sourceModified);
+        out.writeInt(all.size());
+
+        for (Pokemon p : all) out.writeInt(p.getId());
+        for (Pokemon p : all) out.writeByte(p.getGeneration().ordinal());
+        for (Pokemon p : all) {
+            out.writeByte(p.getTypes().size());
+            for (Type t : p.getTypes()) out.writeByte(t.ordinal());
+        }
+        for (Pokemon p : all) {
+            Stats s = p.getStats();
+            out.writeShort(s.getHp());
+            out.writeShort(s.getAttack());
+            out.writeShort(s.getDefense());
+            out.writeShort(s.getSpAttack());
+            out.writeShort(s.getSpDefense());
+            out.writeShort(s.getSpeed());
+        }
+        for (Pokemon p : all) {
+            writeString(out, p.getName());
+            writeString(out, p.getSpriteUrl());
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Lee el snapshot si se generó de un JSON con este tamaño y fecha (el caso normal: el JSON ni se abre);
+     * vacío si no es válido o si no corresponde.
+     */
+    public static Optional<List<Pokemon>> decode(byte[] snapshot, long sourceSize, long sourceModified) {
+        ByteBuffer buf = ByteBuffer.wrap(snapshot);
+        if (!validHeader(buf) || buf.getLong(12) != sourceSize || buf.getLong(20) != sourceModified) {
+            return Optional.empty();
+        }
+        return records(buf);
+    }
+
+    /**
+     * Lee el snapshot si se generó de un JSON con este CRC, para cuando el tamaño o la fecha no cuadran
+     * (p.ej. un JSON solo copiado de nuevo); vacío si no es válido o si no corresponde.
+     */
+    public static Optional<List<Pokemon>> decode(byte[] snapshot, int sourceCrc) {
+        ByteBuffer buf = ByteBuffer.wrap(snapshot);
+        if (!validHeader(buf) || buf.getInt(8) != sourceCrc) return Optional.empty();
+        return records(buf);
+    }
+
+    private static boolean validHeader(ByteBuffer buf) {
+        return buf.limit() >= HEADER_BYTES && buf.getInt(0) == MAGIC && buf.getInt(4) == VERSION;
+    }
+
+    private static Optional<List<Pokemon>> records(ByteBuffer buf) {
+        try {
+            buf.position(HEADER_BYTES - 4);
+            int n = buf.getInt();
+
+            int[] ids = new int[n];
+            for (int i = 0; i < n; i++) ids[i] = buf.getInt();
+
+            byte[] gens = new byte[n];
+            buf.get(gens);
+
+            Type[][] types = new Type[n][];
+            for (int i = 0; i < n; i++) {
+                types[i] = new Type[buf.get()];
+                for (int t = 0; t < types[i].length; t++) types[i][t] = TYPES[buf.get()];
+            }
+
+            short[] stats = new short[n * 6];
+            buf.asShortBuffer().get(stats);
+            buf.position(buf.position() + stats.length * 2);
+
+            List<Pokemon> all = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                String name = readString(buf);
+                String sprite = readString(buf);
+                int s = i * 6;
+                all.add(new Pokemon(ids[i], name, GENS[gens[i]], List.of(types[i]),
+                        new Stats(stats[s], stats[s + 1], stats[s + 2], stats[s + 3], stats[s + 4], stats[s + 5]),
+                        sprite));
+            }
+            return Optional.of(all);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            return Optional.empty();
+        }
+    }
+
+    public static int crc32(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    // longitud -1 = null
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        short len = buf.getShort();
+        if (len < 0) return null;
+        String s = new String(buf.array(), buf.position(), len, StandardCharsets.UTF_8);
+        buf.position(buf.position() + len);
+        return s;
+    }
+}
@@ -0,0 +1,62 @@
+package com.hugoof06.pokedex.data;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa llamadas concurrentes con la misma clave: la primera hace el trabajo y las demás
+ * esperan al mismo CompletableFuture en vez de repetirlo. En cuanto termina, la clave se libera
+ * (no es una caché: una llamada posterior vuelve a ejecutar el trabajo).
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public V run(K key, Supplier<V> work) {
+        calls.incrementAndGet();
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            V value = work.get();
+            mine.complete(value);
+            return value;
+        } catch (Throwable t) {
+            // también Error o checked lanzadas "a escondidas": si no, los que esperan se quedan colgados
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /** Total de llamadas a {@link #run}. */
+    public long calls() {
+        return calls.get();
+    }
+
+    /** Llamadas que se han ahorrado el trabajo porque ya había otra igual en vuelo. */
+    public long coalesced() {
+        return coalesced.get();
+    }
+
+    private static <V> V await(CompletableFuture<V> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
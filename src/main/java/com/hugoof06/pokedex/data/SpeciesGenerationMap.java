@@ -0,0 +1,82 @@
+package com.hugoof06.pokedex.data;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hugoof06.pokedex.model.Generation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Mapa species-id -> Generation.
+ * Se construye una vez a partir de los nueve /generation/{id} y se guarda en disco
+ * (~/.pokedex/species_generations.json), así no hace falta pedir /pokemon-species/{id}
+ * solo para saber la generación de cada Pokémon.
+ */
+public class SpeciesGenerationMap {
+
+    private static final Generation[] GENS = Generation.values();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Path path;
+
+    // byGen[id] = ordinal + 1 de la generación, 0 = desconocido
+    private volatile byte[] byGen;
+
+    public SpeciesGenerationMap(Path dataDir) {
+        this.path = dataDir.resolve("species_generations.json");
+    }
+
+    public boolean isLoaded() {
+        return byGen != null;
+    }
+
+    public Optional<Generation> get(int speciesId) {
+        byte[] b = byGen;
+        if (b == null || speciesId <= 0 || speciesId >= b.length || b[speciesId] == 0) return Optional.empty();
+        return Optional.of(GENS[b[speciesId] - 1]);
+    }
+
+    /** Carga el mapa desde disco. Devuelve false si no existe o está corrupto. */
+    public boolean load() {
+        try {
+            if (!Files.exists(path)) return false;
+            Map<Generation, List<Integer>> data =
+                    mapper.readValue(path.toFile(), new TypeReference<EnumMap<Generation, List<Integer>>>() {});
+            set(data);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Reemplaza el contenido en memoria y lo persiste (best-effort). */
+    public void save(Map<Generation, List<Integer>> data) {
+        set(data);
+        try {
+            Files.createDirectories(path.getParent());
+            mapper.writeValue(path.toFile(), data);
+        } catch (IOException e) {
+            // best-effort: el mapa en memoria sigue valiendo para esta sesión
+        }
+    }
+
+    private void set(Map<Generation, List<Integer>> data) {
+        int maxId = 0;
+        for (List<Integer> ids : data.values()) {
+            for (int id : ids) maxId = Math.max(maxId, id);
+        }
+
+        byte[] b = new byte[maxId + 1];
+        for (Map.Entry<Generation, List<Integer>> e : data.entrySet()) {
+            byte g = (byte) (e.getKey().ordinal() + 1);
+            for (int id : e.getValue()) if (id > 0) b[id] = g;
+        }
+        this.byGen = b;
+    }
+}
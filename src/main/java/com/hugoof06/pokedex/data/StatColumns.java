@@ -0,0 +1,132 @@
+package com.hugoof06.pokedex.data;
+
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Stats en columnas: un short[] por stat (más el total) en el orden de los ids, y para cada
+ * columna una permutación precalculada que la recorre ordenada de menor a mayor valor
+ * (a igual valor, por id).
+ *
+ * Con eso el top-K es leer K posiciones del final de la permutación, y un rango [min, max]
+ * es una búsqueda binaria más recorrer los que caen dentro.
+ */
+public final class StatColumns {
+
+    private static final Stat[] STATS = Stat.values();
+
+    private final int[] ids;                // ids en orden ascendente
+    private final int[] posById;            // id -> posición + 1 (0 = no está)
+    private final short[][] columns;        // [stat][posición]
+    private final int[][] order;            // [stat][rango] -> posición
+
+    public StatColumns(List<Pokemon> pokemons) {
+        List<Pokemon> sorted = new ArrayList<>(pokemons);
+        sorted.sort(Comparator.comparingInt(Pokemon::getId));
+
+        int n = sorted.size();
+        int maxId = n == 0 ? 0 : sorted.get(n - 1).getId();
+        this.ids = new int[n];
+        this.posById = new int[Math.max(maxId, 0) + 1];
+        this.columns = new short[STATS.length][n];
+        this.order = new int[STATS.length][];
+
+        for (int i = 0; i < n; i++) {
+            Pokemon p = sorted.get(i);
+            ids[i] = p.getId();
+            if (p.getId() > 0) posById[p.getId()] = i + 1;
+            for (Stat s : STATS) columns[s.ordinal()][i] = (short) s.of(p.getStats());
+        }
+
+        // permutación por columna: clave (valor << 32 | posición) ordenada, sin boxing
+        for (Stat s : STATS) {
+            short[] column = columns[s.ordinal()];
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) keys[i] = ((long) column[i] << 32) | i;
+            Arrays.sort(keys);
+
+            int[] perm = new int[n];
+            for (int r = 0; r < n; r++) perm[r] = (int) keys[r];
+            order[s.ordinal()] = perm;
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /** Valor del stat para el id (0 si no está). */
+    public int value(Stat stat, int id) {
+        if (id <= 0 || id >= posById.length || posById[id] == 0) return 0;
+        return columns[stat.ordinal()][posById[id] - 1];
+    }
+
+    /** Los {@code k} ids con el valor más alto, de mayor a menor (a igual valor, por id). O(K). */
+    public List<Integer> top(Stat stat, int k) {
+        if (k < 1) return List.of();
+        List<Integer> out = new ArrayList<>(Math.min(k, ids.length));
+        forEachDescending(stat, id -> {
+            out.add(id);
+            return out.size() < k;
+        });
+        return out;
+    }
+
+    /** Ids con min <= stat <= max, de menor a mayor valor. O(log n + K). */
+    public List<Integer> range(Stat stat, int min, int max) {
+        short[] column = columns[stat.ordinal()];
+        int[] perm = order[stat.ordinal()];
+
+        List<Integer> out = new ArrayList<>();
+        for (int r = lowerBound(stat, min); r < perm.length && column[perm[r]] <= max; r++) {
+            out.add(ids[perm[r]]);
+        }
+        return out;
+    }
+
+    /** Recorre los ids de menor a mayor valor mientras {@code visitor} devuelva true. */
+    public void forEachAscending(Stat stat, IntPredicate visitor) {
+        for (int pos : order[stat.ordinal()]) {
+            if (!visitor.test(ids[pos])) return;
+        }
+    }
+
+    /**
+     * Recorre los ids de mayor a menor valor mientras {@code visitor} devuelva true. Los empates
+     * se entregan por id ascendente, igual que en {@link #forEachAscending}.
+     */
+    public void forEachDescending(Stat stat, IntPredicate visitor) {
+        short[] column = columns[stat.ordinal()];
+        int[] perm = order[stat.ordinal()];
+
+        int end = perm.length - 1;
+        while (end >= 0) {
+            // tramo [start, end] con el mismo valor: se emite hacia delante
+            int start = end;
+            while (start > 0 && column[perm[start - 1]] == column[perm[end]]) start--;
+            for (int r = start; r <= end; r++) {
+                if (!visitor.test(ids[perm[r]])) return;
+            }
+            end = start - 1;
+        }
+    }
+
+    /** Primer rango de la permutación con valor >= min. */
+    private int lowerBound(Stat stat, int min) {
+        short[] column = columns[stat.ordinal()];
+        int[] perm = order[stat.ordinal()];
+        int lo = 0, hi = perm.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (column[perm[mid]] < min) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
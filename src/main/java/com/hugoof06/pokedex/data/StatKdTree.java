@@ -0,0 +1,198 @@
+package com.hugoof06.pokedex.data;
+
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * KD-tree sobre los vectores de 6 stats (HP, ATK, DEF, SpA, SpD, SPE) para buscar los k Pokémon
+ * más parecidos (distancia euclídea).
+ *
+ * El árbol está implícito en los arrays: el nodo de un tramo [lo, hi) es su posición central,
+ * que tras construir contiene la mediana de la dimensión {@code profundidad % 6}; a su izquierda
+ * quedan los menores y a su derecha los mayores. Al buscar solo se baja al otro lado de un nodo
+ * si la distancia al plano de corte no supera la del k-ésimo mejor encontrado.
+ */
+public final class StatKdTree {
+
+    private static final int DIMS = 6;
+
+    private final int[] ids;
+    private final short[] coords; // DIMS valores por nodo
+
+    public StatKdTree(List<Pokemon> pokemons) {
+        int n = pokemons.size();
+        this.ids = new int[n];
+        this.coords = new short[n * DIMS];
+        for (int i = 0; i < n; i++) {
+            Pokemon p = pokemons.get(i);
+            ids[i] = p.getId();
+            System.arraycopy(vector(p.getStats()), 0, coords, i * DIMS, DIMS);
+        }
+        build(0, n, 0);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Ids de los {@code k} más cercanos a {@code stats} entre los que acepte {@code filter},
+     * del más cercano al más lejano (a igual distancia, por id).
+     */
+    public List<Integer> nearest(Stats stats, int k, IntPredicate filter) {
+        if (k < 1 || ids.length == 0) return List.of();
+
+        Search s = new Search(vector(stats), k, filter);
+        search(s, 0, ids.length, 0);
+
+        long[] found = s.sorted();
+        List<Integer> out = new ArrayList<>(found.length);
+        for (long key : found) out.add((int) key);
+        return out;
+    }
+
+    private static short[] vector(Stats s) {
+        return new short[]{
+                (short) s.getHp(), (short) s.getAttack(), (short) s.getDefense(),
+                (short) s.getSpAttack(), (short) s.getSpDefense(), (short) s.getSpeed()};
+    }
+
+    // ----------------- Construcción -----------------
+
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= 1) return;
+        int mid = (lo + hi) >>> 1;
+        int dim = depth % DIMS;
+        select(lo, hi - 1, mid, dim);
+        build(lo, mid, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    /** Quickselect: deja en {@code k} el elemento que iría ahí si [lo, hi] estuviera ordenado por {@code dim}. */
+    private void select(int lo, int hi, int k, int dim) {
+        while (hi > lo) {
+            int pivot = coord((lo + hi) >>> 1, dim);
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (coord(i, dim) < pivot) i++;
+                while (coord(j, dim) > pivot) j--;
+                if (i <= j) swap(i++, j--);
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return;
+        }
+    }
+
+    private int coord(int node, int dim) {
+        return coords[node * DIMS + dim];
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        for (int d = 0; d < DIMS; d++) {
+            short c = coords[a * DIMS + d];
+            coords[a * DIMS + d] = coords[b * DIMS + d];
+            coords[b * DIMS + d] = c;
+        }
+    }
+
+    // ----------------- Búsqueda -----------------
+
+    private void search(Search s, int lo, int hi, int depth) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        int dim = depth % DIMS;
+
+        if (s.filter.test(ids[mid])) s.offer(distance(s.target, mid), ids[mid]);
+
+        int diff = s.target[dim] - coord(mid, dim);
+        boolean leftFirst = diff < 0;
+        if (leftFirst) search(s, lo, mid, depth + 1);
+        else search(s, mid + 1, hi, depth + 1);
+
+        // el otro lado solo puede mejorar si el plano de corte está dentro del radio actual
+        if ((long) diff * diff <= s.radius()) {
+            if (leftFirst) search(s, mid + 1, hi, depth + 1);
+            else search(s, lo, mid, depth + 1);
+        }
+    }
+
+    private long distance(short[] target, int node) {
+        long sum = 0;
+        for (int d = 0; d < DIMS; d++) {
+            long diff = target[d] - coords[node * DIMS + d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /** Estado de una búsqueda: max-heap de tamaño k con claves (distancia << 32 | id). */
+    private static final class Search {
+        final short[] target;
+        final IntPredicate filter;
+        final long[] heap;
+        int size;
+
+        Search(short[] target, int k, IntPredicate filter) {
+            this.target = target;
+            this.filter = filter;
+            this.heap = new long[k];
+        }
+
+        /** Distancia (al cuadrado) del peor de los k mejores; sin límite mientras no haya k. */
+        long radius() {
+            return size < heap.length ? Long.MAX_VALUE : heap[0] >>> 32;
+        }
+
+        void offer(long distance, int id) {
+            long key = (distance << 32) | (id & 0xFFFFFFFFL);
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(size++);
+            } else if (key < heap[0]) {
+                heap[0] = key;
+                siftDown(0);
+            }
+        }
+
+        long[] sorted() {
+            long[] out = Arrays.copyOf(heap, size);
+            Arrays.sort(out);
+            return out;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] >= heap[i]) return;
+                swapHeap(parent, i);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int l = 2 * i + 1, r = l + 1, largest = i;
+                if (l < size && heap[l] > heap[largest]) largest = l;
+                if (r < size && heap[r] > heap[largest]) largest = r;
+                if (largest == i) return;
+                swapHeap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swapHeap(int a, int b) {
+            long t = heap[a];
+            heap[a] = heap[b];
+            heap[b] = t;
+        }
+    }
+}
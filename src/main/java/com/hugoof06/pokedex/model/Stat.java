@@ -0,0 +1,20 @@
+package com.hugoof06.pokedex.model;
+
+public enum Stat {
+    HP, ATTACK, DEFENSE, SP_ATTACK, SP_DEFENSE, SPEED,
+    /** Suma de los seis stats base. */
+    TOTAL;
+
+    public int of(Stats s) {
+        return switch (this) {
+            case HP -> s.getHp();
+            case ATTACK -> s.getAttack();
+            case DEFENSE -> s.getDefense();
+            case SP_ATTACK -> s.getSpAttack();
+            case SP_DEFENSE -> s.getSpDefense();
+            case SPEED -> s.getSpeed();
+            case TOTAL -> s.getHp() + s.getAttack() + s.getDefense()
+                    + s.getSpAttack() + s.getSpDefense() + s.getSpeed();
+        };
+    }
+}
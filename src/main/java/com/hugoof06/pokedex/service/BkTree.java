@@ -0,0 +1,118 @@
+package com.hugoof06.pokedex.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * BK-tree sobre nombres con distancia de Levenshtein, para búsquedas tolerantes a erratas.
+ *
+ * Cada hijo cuelga de su padre según la distancia entre ambos. Por la desigualdad triangular,
+ * al buscar con distancia máxima d desde un nodo a distancia dist solo hace falta bajar por los
+ * hijos con clave en [dist - d, dist + d]: se visita una fracción pequeña del diccionario.
+ */
+public final class BkTree {
+
+    /** Nombre encontrado y su distancia a la consulta. */
+    public record Match(String name, int distance) {}
+
+    private static final class Node {
+        final String name;
+        final Map<Integer, Node> children = new HashMap<>(4);
+
+        Node(String name) {
+            this.name = name;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    public void add(String name) {
+        String n = name.toLowerCase(Locale.ROOT);
+        if (root == null) {
+            root = new Node(n);
+            size++;
+            return;
+        }
+
+        Node cur = root;
+        while (true) {
+            int d = distance(cur.name, n, Integer.MAX_VALUE);
+            if (d == 0) return; // ya está
+            Node child = cur.children.get(d);
+            if (child == null) {
+                cur.children.put(d, new Node(n));
+                size++;
+                return;
+            }
+            cur = child;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Hasta {@code k} nombres a distancia <= {@code maxDistance}, los más cercanos primero. */
+    public List<Match> search(String query, int maxDistance, int k) {
+        List<Match> found = new ArrayList<>();
+        if (root == null || k < 1) return found;
+        String q = query.trim().toLowerCase(Locale.ROOT);
+
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            // la distancia exacta solo importa si cae dentro del rango de hijos que se miran
+            int d = distance(node.name, q, maxDistance + longestEdge(node));
+            if (d <= maxDistance) found.add(new Match(node.name, d));
+
+            for (Map.Entry<Integer, Node> e : node.children.entrySet()) {
+                int edge = e.getKey();
+                if (edge >= d - maxDistance && edge <= d + maxDistance) pending.push(e.getValue());
+            }
+        }
+
+        found.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::name));
+        return found.size() > k ? new ArrayList<>(found.subList(0, k)) : found;
+    }
+
+    private static int longestEdge(Node node) {
+        int max = 0;
+        for (int edge : node.children.keySet()) max = Math.max(max, edge);
+        return max;
+    }
+
+    /**
+     * Distancia de Levenshtein con corte: si ya se sabe que supera {@code limit} devuelve
+     * {@code limit + 1} sin terminar la tabla.
+     */
+    static int distance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) return limit + 1;
+
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > limit) return limit + 1;
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[b.length()];
+    }
+}
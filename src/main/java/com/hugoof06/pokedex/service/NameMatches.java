@@ -0,0 +1,46 @@
+package com.hugoof06.pokedex.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.hugoof06.pokedex.model.Generation;
+
+/**
+ * Nombres de una generación que contienen un texto, para la búsqueda mientras se escribe.
+ *
+ * Si la consulta nueva contiene a la anterior (p.ej. se ha añadido una letra), sus coincidencias
+ * son un subconjunto de las anteriores: basta con filtrar esas en vez del diccionario entero.
+ * Es inmutable, así se puede calcular en segundo plano a partir de la última que se mostró.
+ */
+public record NameMatches(Generation gen, String query, List<String> names) {
+
+    /**
+     * Coincidencias de {@code text} sacadas de {@code previous} si es posible o, si no, del diccionario
+     * (todos los nombres de la generación, en minúsculas y en orden de pokedex).
+     */
+    static NameMatches of(Generation gen, String text, List<String> dictionary, NameMatches previous) {
+        String q = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+
+        boolean narrow = previous != null && previous.gen == gen && q.contains(previous.query);
+        if (narrow && q.equals(previous.query)) return previous;
+
+        List<String> out = new ArrayList<>();
+        for (String n : narrow ? previous.names : dictionary) {
+            if (n.contains(q)) out.add(n);
+        }
+        return new NameMatches(gen, q, List.copyOf(out));
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /** Página {@code page} (desde 1) de las coincidencias. */
+    public List<String> page(int page, int pageSize) {
+        if (page < 1) page = 1;
+        if (pageSize < 1) pageSize = 20;
+        int from = Math.min((page - 1) * pageSize, names.size());
+        return names.subList(from, Math.min(from + pageSize, names.size()));
+    }
+}
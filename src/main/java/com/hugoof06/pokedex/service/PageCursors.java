@@ -0,0 +1,59 @@
+package com.hugoof06.pokedex.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import com.hugoof06.pokedex.data.Page;
+
+/**
+ * Recuerda el cursor (afterId) de cada número de página ya visitado para una misma consulta,
+ * así la CLI y la UI pueden seguir hablando de "página N" pero pidiendo por cursor.
+ * Si cambia la consulta (generación, tipo...) se empieza de cero.
+ */
+public class PageCursors {
+
+    private Object key;
+    private final List<Integer> cursors = new ArrayList<>(); // índice = página - 1
+
+    /**
+     * Sirve la página {@code page} de la consulta {@code key}: por cursor si ya conocemos su afterId,
+     * y si no (salto directo a una página lejana) con la versión offset/limit.
+     */
+    public <T> List<T> page(Object key, int page, IntFunction<Page<T>> byCursor, Supplier<List<T>> byOffset) {
+        OptionalInt cursor = cursorFor(key, page);
+        if (isPastEnd(page)) return List.of();
+        if (cursor.isEmpty()) return byOffset.get();
+
+        Page<T> served = byCursor.apply(cursor.getAsInt());
+        record(page, served);
+        return served.items();
+    }
+
+    /** Cursor para la página pedida, o vacío si todavía no se ha llegado a ella. */
+    public OptionalInt cursorFor(Object key, int page) {
+        if (!Objects.equals(this.key, key)) {
+            this.key = key;
+            cursors.clear();
+            cursors.add(0);
+        }
+        if (page < 1 || page > cursors.size()) return OptionalInt.empty();
+        int c = cursors.get(page - 1);
+        return c == Page.END ? OptionalInt.empty() : OptionalInt.of(c);
+    }
+
+    /** Guarda el cursor de la página siguiente a partir de la página recién servida. */
+    public void record(int page, Page<?> served) {
+        if (page < 1 || page > cursors.size()) return;
+        while (cursors.size() > page) cursors.remove(cursors.size() - 1);
+        cursors.add(served.nextAfterId());
+    }
+
+    /** true si ya sabemos que la página pedida no existe (la anterior era la última). */
+    public boolean isPastEnd(int page) {
+        return page >= 2 && page <= cursors.size() && cursors.get(page - 1) == Page.END;
+    }
+}
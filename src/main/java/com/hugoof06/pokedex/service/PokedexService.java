@@ -1,18 +1,54 @@
 package com.hugoof06.pokedex.service;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
 
+import com.hugoof06.pokedex.data.Page;
+import com.hugoof06.pokedex.data.PokemonBatch;
+import com.hugoof06.pokedex.data.PokemonIndex;
+import com.hugoof06.pokedex.data.StatColumns;
+import com.hugoof06.pokedex.data.StatKdTree;
 import com.hugoof06.pokedex.data.PokemonRepository;
 import com.hugoof06.pokedex.model.Generation;
 import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stat;
 import com.hugoof06.pokedex.model.Type;
 
 public class PokedexService {
 
+    /** Generaciones nuevas que {@link #suggest} puede cargar en una llamada si con las ya cargadas no encuentra nada. */
+    static final int SUGGEST_NEW_GENERATIONS = 2;
+
     private final PokemonRepository repo;
 
+    // Diccionarios de nombres para la búsqueda aproximada, uno por generación; cada uno se construye
+    // la primera vez que hace falta (en la API, construir uno es descargar el listado de esa generación)
+    private final ReentrantLock namesLock = new ReentrantLock();
+    private final EnumMap<Generation, BkTree> nameTrees = new EnumMap<>(Generation.class);
+
+    // Todos los nombres de cada generación para la búsqueda mientras se escribe; se cargan la primera vez
+    private final ReentrantLock dictionaryLock = new ReentrantLock();
+    private final EnumMap<Generation, List<String>> dictionaries = new EnumMap<>(Generation.class);
+
+    // Índice para PokemonQuery con las generaciones cargadas hasta ahora; se amplía cuando una consulta pide otras
+    private final ReentrantLock queryIndexLock = new ReentrantLock();
+    private final EnumSet<Generation> indexedGenerations = EnumSet.noneOf(Generation.class);
+    private PokemonIndex queryIndex;
+
     public PokedexService(PokemonRepository repo) {
         this.repo = repo;
     }
@@ -29,7 +65,22 @@ public class PokedexService {
         return repo.list(gen, offset, pageSize);
     }
 
+    /** Página por cursor: {@code afterId} = 0 para la primera, luego {@link Page#nextAfterId()}. */
+    public Page<Pokemon> listAfter(Generation gen, int afterId, int pageSize) {
+        if (pageSize < 1) pageSize = 20;
+        return repo.listAfter(gen, Math.max(afterId, 0), pageSize);
+    }
+
     public Optional<Pokemon> show(String idOrName) {
+        return show(idOrName, null);
+    }
+
+    /**
+     * Como {@link #show(String)}, pero si el nombre no existe se carga el más parecido según
+     * {@link #suggest}, que a igual distancia prefiere {@code preferred} (la generación que se está viendo).
+     * Quien llama puede saber si es una aproximación comparando el nombre devuelto con el pedido.
+     */
+    public Optional<Pokemon> show(String idOrName, Generation preferred) {
         if (idOrName == null) return Optional.empty();
         String s = idOrName.trim();
         if (s.isEmpty()) return Optional.empty();
@@ -40,8 +91,85 @@ public class PokedexService {
             return repo.findById(id);
         }
 
-        // Si no -> buscar por nombre
-        return repo.findByName(s);
+        // Si no -> buscar por nombre, y si no existe probar con el nombre más parecido
+        Optional<Pokemon> exact = repo.findByName(s);
+        if (exact.isPresent()) return exact;
+
+        List<String> closest = suggest(s, 1, preferred);
+        return closest.isEmpty() ? Optional.empty() : repo.findByName(closest.get(0));
+    }
+
+    /**
+     * Nombres más parecidos a {@code name} (p.ej. "charizrd" -> charizard), de más a menos cercano.
+     * La distancia máxima crece con la longitud: una errata en nombres cortos, hasta tres en los largos.
+     *
+     * Se busca en {@code first} (null = la 1) y en las generaciones cuyos nombres ya estén cargados,
+     * ampliando la distancia de una en una en todas a la vez: un nombre a distancia 1 de cualquiera de
+     * ellas gana a uno a distancia 3 de {@code first}. Solo si no hay ninguno se cargan más generaciones,
+     * como mucho {@link #SUGGEST_NEW_GENERATIONS} por llamada (en la API, cada una es un /generation).
+     */
+    public List<String> suggest(String name, int k, Generation first) {
+        if (name == null || name.isBlank() || k < 1) return List.of();
+        String q = name.trim().toLowerCase(Locale.ROOT);
+        int maxDistance = Math.max(1, Math.min(3, q.length() / 4));
+
+        List<Generation> order = new ArrayList<>(EnumSet.allOf(Generation.class));
+        Generation start = first != null ? first : Generation.GEN_1;
+        order.remove(start);
+        order.add(0, start);
+
+        List<BkTree> trees = new ArrayList<>();
+        List<Generation> notLoaded = new ArrayList<>();
+        for (Generation g : order) {
+            if (g == start || hasNameTree(g)) trees.add(nameTree(g));
+            else notLoaded.add(g);
+        }
+
+        List<String> found = closest(trees, q, maxDistance, k);
+        for (int i = 0; found.isEmpty() && i < Math.min(SUGGEST_NEW_GENERATIONS, notLoaded.size()); i++) {
+            trees.add(nameTree(notLoaded.get(i)));
+            found = closest(trees, q, maxDistance, k);
+        }
+        return found;
+    }
+
+    /**
+     * Hasta {@code k} nombres de los árboles dados, a la menor distancia que tenga alguno (1, luego 2...).
+     * A igual distancia, primero los del árbol que va antes.
+     */
+    private static List<String> closest(List<BkTree> trees, String q, int maxDistance, int k) {
+        for (int d = 1; d <= maxDistance; d++) {
+            // cada árbol ya los da ordenados por distancia; sort es estable y respeta el orden de árboles
+            List<BkTree.Match> matches = new ArrayList<>();
+            for (BkTree tree : trees) matches.addAll(tree.search(q, d, k));
+            if (matches.isEmpty()) continue;
+
+            matches.sort(Comparator.comparingInt(BkTree.Match::distance));
+            return matches.stream().map(BkTree.Match::name).distinct().limit(k).toList();
+        }
+        return List.of();
+    }
+
+    /** Varios Pokémon por id en una sola llamada (p.ej. para resolver los favoritos). */
+    public PokemonBatch findByIds(Collection<Integer> ids) {
+        return repo.findByIds(ids);
+    }
+
+    /**
+     * Varios Pokémon por nombre de una vez (p.ej. los resultados de {@link #searchNames}), pidiéndolos en
+     * paralelo. El mapa conserva el orden pedido y no incluye los que no existen.
+     */
+    public Map<String, Pokemon> findByNames(Collection<String> names) {
+        Map<String, CompletableFuture<Optional<Pokemon>>> futures = new LinkedHashMap<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String n : names) {
+                futures.computeIfAbsent(n, k -> CompletableFuture.supplyAsync(() -> repo.findByName(k), pool));
+            }
+        }
+
+        Map<String, Pokemon> found = new LinkedHashMap<>();
+        futures.forEach((name, f) -> f.join().ifPresent(p -> found.put(name, p)));
+        return found;
     }
 
     public List<Pokemon> byType(Generation gen, Type type) {
@@ -50,9 +178,10 @@ public class PokedexService {
 
     public List<Pokemon> search(Generation gen, String text) {
         String q = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
-        return repo.findAll(gen).stream()
-                .filter(p -> p.getName().toLowerCase(Locale.ROOT).contains(q))
-                .toList();
+        if (q.isEmpty()) return repo.findAll(gen);
+
+        // el índice de nombres da las coincidencias en orden; solo se cargan esos Pokémon
+        return new ArrayList<>(findByNames(repo.searchSpeciesNames(gen, q, 0, Integer.MAX_VALUE)).values());
     }
 
     public List<Pokemon> byType(Generation gen, Type type, int page, int pageSize) {
@@ -63,6 +192,132 @@ public class PokedexService {
         return repo.listByType(type, gen, offset, pageSize);
     }
 
+    public Page<Pokemon> byTypeAfter(Generation gen, Type type, int afterId, int pageSize) {
+        if (pageSize < 1) pageSize = 20;
+        return repo.listByTypeAfter(type, gen, Math.max(afterId, 0), pageSize);
+    }
+
+    /** Ejecuta una consulta compuesta (ver {@link PokemonQuery}). */
+    public List<Pokemon> query(PokemonQuery query) {
+        return query.run(queryIndex(query.generations()));
+    }
+
+    /** Los {@code n} Pokémon de la generación con el stat más alto (ver {@link StatColumns#top}). */
+    public List<Pokemon> top(Generation gen, Stat stat, int n) {
+        if (n < 1) n = 10;
+        PokemonIndex index = queryIndex(EnumSet.of(gen));
+        return resolve(index, index.statColumns(gen).top(stat, n));
+    }
+
+    /** Pokémon de la generación con min <= stat <= max, de menor a mayor valor. */
+    public List<Pokemon> statRange(Generation gen, Stat stat, int min, int max) {
+        PokemonIndex index = queryIndex(EnumSet.of(gen));
+        return resolve(index, index.statColumns(gen).range(stat, min, max));
+    }
+
+    /**
+     * Los {@code k} Pokémon de una generación con los stats más parecidos a {@code p} (sin contar a él mismo).
+     * Siempre dentro de una sola generación: buscar en todas supondría, con la API, descargar la pokedex entera.
+     *
+     * @param type si no es null, solo de ese tipo
+     * @param gen  generación en la que buscar; null = la del propio {@code p}
+     */
+    public List<Pokemon> similar(Pokemon p, int k, Type type, Generation gen) {
+        if (k < 1) k = 5;
+        if (gen == null) gen = p.getGeneration();
+        PokemonIndex index = queryIndex(EnumSet.of(gen));
+        StatKdTree tree = index.similarityTree(gen);
+
+        BitSet ofType = type == null ? null : index.typeBits(type);
+        List<Integer> ids = tree.nearest(p.getStats(), k,
+                id -> id != p.getId() && (ofType == null || ofType.get(id)));
+        return resolve(index, ids);
+    }
+
+    /** Cobertura de tipos de un equipo (ver {@link TeamCoverage}). */
+    public TeamCoverage analyzeTeam(List<Pokemon> team) {
+        return TeamCoverage.of(team);
+    }
+
+    /** Equipo de {@code size} miembros de la generación con la mejor cobertura (ver {@link TeamOptimizer}). */
+    public TeamOptimizer.Result bestTeam(Generation gen, int size) {
+        return TeamOptimizer.best(queryIndex(EnumSet.of(gen)).all(gen), size);
+    }
+
+    private static List<Pokemon> resolve(PokemonIndex index, List<Integer> ids) {
+        List<Pokemon> out = new ArrayList<>(ids.size());
+        for (int id : ids) index.byId(id).ifPresent(out::add);
+        return out;
+    }
+
+    private PokemonIndex queryIndex(Set<Generation> gens) {
+        // la fuente ya tiene todos en un índice (JSON): se usa ese en vez de construir otro igual
+        Optional<PokemonIndex> loaded = repo.loadedIndex();
+        if (loaded.isPresent()) return loaded.get();
+
+        queryIndexLock.lock();
+        try {
+            if (queryIndex == null) queryIndex = new PokemonIndex(List.of());
+            for (Generation g : gens) {
+                if (indexedGenerations.contains(g)) continue;
+                // se añade al índice que ya hay (lo de las demás generaciones no se reconstruye), y se marca
+                // solo si la descarga ha ido bien: si falla, la siguiente consulta lo reintenta
+                queryIndex = queryIndex.plus(repo.findAll(g));
+                indexedGenerations.add(g);
+            }
+            return queryIndex;
+        } finally {
+            queryIndexLock.unlock();
+        }
+    }
+
+    private boolean hasNameTree(Generation gen) {
+        namesLock.lock();
+        try {
+            return nameTrees.containsKey(gen);
+        } finally {
+            namesLock.unlock();
+        }
+    }
+
+    private BkTree nameTree(Generation gen) {
+        namesLock.lock();
+        try {
+            BkTree tree = nameTrees.get(gen);
+            if (tree == null) {
+                tree = new BkTree();
+                for (String n : names(gen)) tree.add(n);
+                nameTrees.put(gen, tree);
+            }
+            return tree;
+        } finally {
+            namesLock.unlock();
+        }
+    }
+
+    /** Todos los nombres de la generación (en minúsculas, en orden de pokedex); tras la primera vez, de memoria. */
+    public List<String> names(Generation gen) {
+        dictionaryLock.lock();
+        try {
+            List<String> dict = dictionaries.get(gen);
+            if (dict == null) {
+                dict = List.copyOf(repo.searchSpeciesNames(gen, "", 0, Integer.MAX_VALUE));
+                dictionaries.put(gen, dict);
+            }
+            return dict;
+        } finally {
+            dictionaryLock.unlock();
+        }
+    }
+
+    /**
+     * Nombres de la generación que contienen {@code text}, desde el diccionario en memoria. Si se pasa
+     * el resultado anterior y la consulta nueva lo amplía, solo se filtra ese (ver {@link NameMatches}).
+     */
+    public NameMatches matchNames(Generation gen, String text, NameMatches previous) {
+        return NameMatches.of(gen, text, names(gen), previous);
+    }
+
     public List<String> searchNames(Generation gen, String text, int page, int pageSize) {
         if (page < 1) page = 1;
         if (pageSize < 1) pageSize = 20;
@@ -0,0 +1,197 @@
+package com.hugoof06.pokedex.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import com.hugoof06.pokedex.data.PokemonIndex;
+import com.hugoof06.pokedex.model.Generation;
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stat;
+import com.hugoof06.pokedex.model.Type;
+
+/**
+ * Consulta compuesta sobre generación, tipos y rangos de stats, con orden y límite.
+ *
+ * Ejemplo: FIRE+FLYING de GEN_1 a GEN_3 con velocidad >= 100 y HP < 60, por ataque:
+ * <pre>
+ * PokemonQuery.builder()
+ *         .generations(Generation.GEN_1, Generation.GEN_3)
+ *         .onlyTypes(Type.FIRE, Type.FLYING)
+ *         .statAtLeast(Stat.SPEED, 100)
+ *         .statBelow(Stat.HP, 60)
+ *         .sortByDescending(Stat.ATTACK)
+ *         .build();
+ * </pre>
+ *
+ * Se evalúa sobre un {@link PokemonIndex}: generación y tipos son operaciones entre BitSets,
+ * los rangos se comprueban contra las columnas de stats, el orden sale de sus permutaciones
+ * precalculadas, y solo al final se materializan los Pokémon que salen.
+ */
+public final class PokemonQuery {
+
+    private record StatRange(Stat stat, int min, int max) {}
+
+    private final Set<Generation> generations;
+    private final Set<Type> allTypes;
+    private final Set<Type> anyTypes;
+    private final boolean exactTypes;
+    private final List<StatRange> ranges;
+    private final Stat sortBy;
+    private final boolean descending;
+    private final int limit;
+
+    private PokemonQuery(Builder b) {
+        this.generations = b.generations.isEmpty()
+                ? Collections.unmodifiableSet(EnumSet.allOf(Generation.class))
+                : Collections.unmodifiableSet(EnumSet.copyOf(b.generations));
+        this.allTypes = b.allTypes.clone();
+        this.anyTypes = b.anyTypes.clone();
+        this.exactTypes = b.exactTypes;
+        this.ranges = List.copyOf(b.ranges);
+        this.sortBy = b.sortBy;
+        this.descending = b.descending;
+        this.limit = b.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Generaciones que necesita la consulta (todas si no se filtró por generación). */
+    public Set<Generation> generations() {
+        return generations;
+    }
+
+    /** Evalúa la consulta sobre el índice; el índice debe contener al menos {@link #generations()}. */
+    public List<Pokemon> run(PokemonIndex index) {
+        // 1) generación: unión de los bitsets
+        BitSet bits = new BitSet(index.maxId() + 1);
+        for (Generation g : generations) bits.or(index.generationBits(g));
+
+        // 2) tipos: intersección con cada tipo obligatorio, unión de los opcionales
+        for (Type t : allTypes) bits.and(index.typeBits(t));
+        if (!anyTypes.isEmpty()) {
+            BitSet any = new BitSet(index.maxId() + 1);
+            for (Type t : anyTypes) any.or(index.typeBits(t));
+            bits.and(any);
+        }
+        if (exactTypes) {
+            for (Type t : EnumSet.complementOf(EnumSet.copyOf(allTypes))) bits.andNot(index.typeBits(t));
+        }
+
+        // 3) rangos de stats contra las columnas
+        if (!ranges.isEmpty()) {
+            for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+                for (StatRange r : ranges) {
+                    int v = index.stat(r.stat(), id);
+                    if (v < r.min() || v > r.max()) {
+                        bits.clear(id);
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (sortBy == null) return index.slice(bits, 0, limit);
+
+        // 4) orden: se recorre la permutación precalculada de la columna y se cogen los que
+        //    estén en el bitset, parando al llegar al límite (sin ordenar nada aquí)
+        List<Pokemon> out = new ArrayList<>(Math.min(limit, bits.cardinality()));
+        IntPredicate take = id -> {
+            if (bits.get(id)) index.byId(id).ifPresent(out::add);
+            return out.size() < limit;
+        };
+        if (descending) index.statColumns().forEachDescending(sortBy, take);
+        else index.statColumns().forEachAscending(sortBy, take);
+        return out;
+    }
+
+    public static final class Builder {
+
+        private final EnumSet<Generation> generations = EnumSet.noneOf(Generation.class);
+        private final EnumSet<Type> allTypes = EnumSet.noneOf(Type.class);
+        private final EnumSet<Type> anyTypes = EnumSet.noneOf(Type.class);
+        private boolean exactTypes;
+        private final List<StatRange> ranges = new ArrayList<>();
+        private Stat sortBy;
+        private boolean descending;
+        private int limit = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        public Builder generation(Generation... gens) {
+            generations.addAll(Arrays.asList(gens));
+            return this;
+        }
+
+        /** Rango de generaciones, ambos extremos incluidos. */
+        public Builder generations(Generation from, Generation to) {
+            generations.addAll(EnumSet.range(from, to));
+            return this;
+        }
+
+        /** Debe tener todos estos tipos (y quizá otros). */
+        public Builder type(Type... types) {
+            allTypes.addAll(Arrays.asList(types));
+            return this;
+        }
+
+        /** Debe tener exactamente estos tipos. */
+        public Builder onlyTypes(Type... types) {
+            type(types);
+            exactTypes = true;
+            return this;
+        }
+
+        /** Debe tener al menos uno de estos tipos. */
+        public Builder anyType(Type... types) {
+            anyTypes.addAll(Arrays.asList(types));
+            return this;
+        }
+
+        /** min <= stat <= max. */
+        public Builder stat(Stat stat, int min, int max) {
+            ranges.add(new StatRange(stat, min, max));
+            return this;
+        }
+
+        /** stat >= min. */
+        public Builder statAtLeast(Stat stat, int min) {
+            return stat(stat, min, Integer.MAX_VALUE);
+        }
+
+        /** stat < max. */
+        public Builder statBelow(Stat stat, int max) {
+            return stat(stat, Integer.MIN_VALUE, max - 1);
+        }
+
+        public Builder sortBy(Stat stat) {
+            this.sortBy = stat;
+            this.descending = false;
+            return this;
+        }
+
+        public Builder sortByDescending(Stat stat) {
+            this.sortBy = stat;
+            this.descending = true;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            this.limit = Math.max(1, limit);
+            return this;
+        }
+
+        public PokemonQuery build() {
+            if (exactTypes && allTypes.isEmpty()) throw new IllegalStateException("onlyTypes needs at least one type");
+            return new PokemonQuery(this);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.hugoof06.pokedex.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+import com.hugoof06.pokedex.model.Generation;
+import com.hugoof06.pokedex.model.Type;
+
+/**
+ * Precarga en segundo plano lo que probablemente se pida después: la página siguiente y la anterior
+ * a la que se acaba de servir y, en las búsquedas, los Pokémon de las primeras filas de la siguiente.
+ * Lo que se carga queda en las cachés del repositorio, así la petición real ya no espera a la red.
+ *
+ * - Todo va asociado a una consulta (generación, generación + tipo, generación + texto): al cambiar
+ *   de consulta se cancela lo pendiente de la anterior.
+ * - Presupuesto: como mucho {@code maxConcurrent} precargas a la vez, en hilos de baja prioridad
+ *   (0 = desactivado). Lo que está en marcha no se interrumpe: se deja terminar.
+ * - {@link #claimPage} se llama antes de servir cada página y lleva la cuenta de aciertos.
+ *
+ * Los PageCursors se leen en el hilo del llamante; a los hilos de precarga solo llegan los cursores ya resueltos.
+ */
+public final class PrefetchScheduler implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_CONCURRENT = 2;
+    public static final int DEFAULT_DETAIL_ROWS = 5;
+
+    private final PokedexService service;
+    private final int maxConcurrent;
+    private final int detailRows;
+    private final ExecutorService pool;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Object context;
+    private final Map<Object, Prefetch> pending = new HashMap<>();
+    private final Set<Object> done = new HashSet<>();
+    private long scheduled, completed, failed, cancelled, hits, misses;
+
+    public PrefetchScheduler(PokedexService service) {
+        this(service, DEFAULT_MAX_CONCURRENT, DEFAULT_DETAIL_ROWS);
+    }
+
+    public PrefetchScheduler(PokedexService service, int maxConcurrent, int detailRows) {
+        this.service = service;
+        this.maxConcurrent = Math.max(0, maxConcurrent);
+        this.detailRows = Math.max(0, detailRows);
+        this.pool = this.maxConcurrent == 0 ? null : newPool(this.maxConcurrent);
+    }
+
+    /** Hilos de baja prioridad que se cierran solos si no hay nada que precargar. */
+    private static ExecutorService newPool(int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "pokedex-prefetch");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    // ----------------- Páginas -----------------
+
+    /** Tras servir la página {@code page} del listado de la generación: precarga la anterior y la siguiente. */
+    public void listPagesAround(Generation gen, int page, int pageSize, PageCursors cursors) {
+        schedulePages(gen, page, cursors,
+                p -> cursors.cursorFor(gen, p),
+                after -> service.listAfter(gen, after, pageSize),
+                p -> service.list(gen, p, pageSize));
+    }
+
+    /** Igual que {@link #listPagesAround} para el listado por tipo (clave de cursores {@code gen + ":" + type}). */
+    public void typePagesAround(Generation gen, Type type, int page, int pageSize, PageCursors cursors) {
+        Object key = typeKey(gen, type);
+        schedulePages(key, page, cursors,
+                p -> cursors.cursorFor(key, p),
+                after -> service.byTypeAfter(gen, type, after, pageSize),
+                p -> service.byType(gen, type, p, pageSize));
+    }
+
+    /** Tras servir una página de búsqueda: precarga la siguiente y los Pokémon de sus primeras filas. */
+    public void searchPagesAround(Generation gen, String text, int page, int pageSize) {
+        Object key = searchKey(gen, text);
+        submit(key, page + 1, () -> {
+            List<String> names = service.searchNames(gen, text, page + 1, pageSize);
+            if (detailRows > 0 && !names.isEmpty()) {
+                service.findByNames(names.subList(0, Math.min(detailRows, names.size())));
+            }
+        });
+        if (page > 1) submit(key, page - 1, () -> service.searchNames(gen, text, page - 1, pageSize));
+    }
+
+    /**
+     * Se llama justo antes de servir una página: cuenta un acierto si ya estaba precargada. Si su precarga
+     * está en marcha se espera a que termine (también es acierto); si aún no había empezado se cancela
+     * y la pide el llamante.
+     */
+    public boolean claimPage(Object key, int page) {
+        Prefetch inFlight;
+        lock.lock();
+        try {
+            focus(key);
+            if (done.remove(page)) {
+                hits++;
+                return true;
+            }
+            inFlight = pending.get(page);
+            if (inFlight == null || !inFlight.started.get()) {
+                if (inFlight != null) cancel(page, inFlight);
+                misses++;
+                return false;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        boolean ok = inFlight.await();
+        lock.lock();
+        try {
+            // ya consumida: que finished() no la deje marcada como precargada
+            if (pending.get(page) == inFlight) pending.remove(page);
+            done.remove(page);
+            if (ok) hits++;
+            else misses++;
+        } finally {
+            lock.unlock();
+        }
+        return ok;
+    }
+
+    /** Clave de consulta de una búsqueda (para {@link #claimPage}). */
+    public static Object searchKey(Generation gen, String text) {
+        return gen + ":search:" + (text == null ? "" : text.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /** Clave de consulta del listado por tipo (la misma que usan sus PageCursors). */
+    public static Object typeKey(Generation gen, Type type) {
+        return gen + ":" + type;
+    }
+
+    // ----------------- Control -----------------
+
+    /** Cancela todo lo pendiente (p.ej. al cambiar de fuente de datos). */
+    public void cancelAll() {
+        lock.lock();
+        try {
+            focus(null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(scheduled, completed, failed, cancelled, hits, misses);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+        if (pool == null) return;
+        pool.shutdown();
+        try {
+            // las que ya estaban en marcha escriben en la caché: que terminen antes de que se cierre
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public record Stats(long scheduled, long completed, long failed, long cancelled, long hits, long misses) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("scheduled=%d completed=%d failed=%d cancelled=%d hits=%d misses=%d hitRate=%.1f%%",
+                    scheduled, completed, failed, cancelled, hits, misses, hitRate() * 100);
+        }
+    }
+
+    // ----------------- Internals -----------------
+
+    private void schedulePages(Object key, int page, PageCursors cursors,
+                               IntFunction<OptionalInt> cursorAt, IntConsumer byCursor, IntConsumer byOffset) {
+        if (pool == null) return;
+        // cursores resueltos aquí: PageCursors no es thread-safe
+        for (int p : new int[]{page + 1, page - 1}) {
+            if (p < 1 || cursors.isPastEnd(p)) continue;
+            OptionalInt cursor = cursorAt.apply(p);
+            int target = p;
+            submit(key, p, () -> {
+                // por cursor si ya se conoce: es la misma consulta que hará luego PageCursors
+                if (cursor.isPresent()) byCursor.accept(cursor.getAsInt());
+                else byOffset.accept(target);
+            });
+        }
+    }
+
+    private void submit(Object key, Object item, Runnable work) {
+        if (pool == null) return;
+        lock.lock();
+        try {
+            focus(key);
+            if (done.contains(item) || pending.containsKey(item)) return;
+
+            Prefetch task = new Prefetch(key, item, work);
+            pending.put(item, task);
+            scheduled++;
+            pool.execute(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Cambia de consulta: lo pendiente de la anterior se cancela y lo ya precargado se olvida. Con el lock cogido. */
+    private void focus(Object key) {
+        if (Objects.equals(context, key)) return;
+        for (var e : Map.copyOf(pending).entrySet()) cancel(e.getKey(), e.getValue());
+        done.clear();
+        context = key;
+    }
+
+    private void cancel(Object item, Prefetch task) {
+        // sin interrumpir: un interrupt cerraría los FileChannel de la caché a mitad de lectura
+        if (task.cancel(false)) cancelled++;
+        pending.remove(item);
+    }
+
+    private void finished(Prefetch task, boolean ok) {
+        lock.lock();
+        try {
+            if (ok) completed++;
+            else failed++;
+            if (!Objects.equals(context, task.key) || pending.get(task.item) != task) return;
+            pending.remove(task.item);
+            if (ok) done.add(task.item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class Prefetch extends FutureTask<Boolean> {
+        final Object key;
+        final Object item;
+        final AtomicBoolean started = new AtomicBoolean();
+
+        Prefetch(Object key, Object item, Runnable work) {
+            super(() -> {
+                try {
+                    work.run();
+                    return true;
+                } catch (RuntimeException e) {
+                    return false; // es solo una precarga: la petición real ya dará el error si lo hay
+                }
+            });
+            this.key = key;
+            this.item = item;
+        }
+
+        @Override
+        public void run() {
+            if (isCancelled()) return;
+            started.set(true);
+            super.run();
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) finished(this, await());
+        }
+
+        boolean await() {
+            try {
+                return get();
+            } catch (CancellationException | ExecutionException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.hugoof06.pokedex.service;
+
+import java.util.List;
+import java.util.Set;
+
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Type;
+
+/**
+ * Cobertura de tipos de un equipo, como máscaras de bits sobre {@link Type} (ver {@link TypeChart}).
+ *
+ * @param offensiveMask tipos defensores a los que algún miembro hace x2 con un ataque de su propio tipo
+ * @param resistMask    tipos atacantes que al menos un miembro resiste (o a los que es inmune)
+ * @param exposedMask   tipos atacantes a los que algún miembro es débil y ninguno resiste
+ */
+public record TeamCoverage(int offensiveMask, int resistMask, int exposedMask) {
+
+    public static TeamCoverage of(List<Pokemon> team) {
+        int offensive = 0, resist = 0, weak = 0;
+        for (Pokemon p : team) {
+            offensive |= offensiveMask(p);
+            resist |= TypeChart.resistMask(p.getTypes());
+            weak |= TypeChart.weakMask(p.getTypes());
+        }
+        return new TeamCoverage(offensive, resist, weak & ~resist);
+    }
+
+    /** Tipos a los que el Pokémon hace x2 con ataques de sus propios tipos. */
+    public static int offensiveMask(Pokemon p) {
+        int mask = 0;
+        for (Type t : p.getTypes()) mask |= TypeChart.superEffectiveMask(t);
+        return mask;
+    }
+
+    /** Puntuación de cobertura: tipos cubiertos en ataque + tipos resistidos (máximo 36). */
+    public int score() {
+        return Integer.bitCount(offensiveMask) + Integer.bitCount(resistMask);
+    }
+
+    public Set<Type> offensive() {
+        return TypeChart.types(offensiveMask);
+    }
+
+    public Set<Type> resisted() {
+        return TypeChart.types(resistMask);
+    }
+
+    public Set<Type> exposed() {
+        return TypeChart.types(exposedMask);
+    }
+}
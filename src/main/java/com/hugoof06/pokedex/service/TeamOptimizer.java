@@ -0,0 +1,161 @@
+package com.hugoof06.pokedex.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stat;
+import com.hugoof06.pokedex.model.Type;
+
+/**
+ * Busca el equipo con mejor {@link TeamCoverage#score()} entre los Pokémon dados; a igual cobertura,
+ * el de mayor suma de stats base.
+ *
+ * - Candidatos: de cada combinación de tipos, solo los {@code size} de más stats. Dos Pokémon con
+ *   los mismos tipos aportan la misma cobertura, así que un equipo nunca usaría uno más flojo de
+ *   esa combinación teniendo libre uno mejor; pero sí puede llevar varios de ella (por stats, o
+ *   porque no hay bastantes combinaciones distintas).
+ * - Ramificación y poda: los candidatos se ordenan de más a menos cobertura propia y, con las
+ *   uniones de máscaras y el máximo de stats de cada sufijo precalculados, una rama se corta en
+ *   cuanto ni cogiendo lo mejor que queda puede superar al mejor equipo encontrado.
+ * - En paralelo con fork/join: una tarea por primer miembro, compartiendo la mejor puntuación.
+ */
+public final class TeamOptimizer {
+
+    public static final int MAX_TEAM_SIZE = 6;
+
+    /** Mejor equipo encontrado, su cobertura y lo que costó encontrarlo. */
+    public record Result(List<Pokemon> team, TeamCoverage coverage, long nodes, long elapsedMillis) {}
+
+    private final Pokemon[] candidates;
+    private final int[] off, res, total;
+    private final int[] suffixOff, suffixRes, suffixMaxTotal;
+    private final int size;
+
+    // puntuación empaquetada: cobertura << 16 | suma de stats (como mucho 6 * 1530 < 2^16)
+    private final AtomicLong bestScore = new AtomicLong(-1);
+    private final ReentrantLock bestLock = new ReentrantLock();
+    private int[] bestTeam = new int[0];
+    private final LongAdder nodes = new LongAdder();
+
+    private TeamOptimizer(List<Pokemon> pool, int size) {
+        // los size mejores de cada combinación de tipos
+        Comparator<Pokemon> strongest = Comparator
+                .comparingInt((Pokemon p) -> -Stat.TOTAL.of(p.getStats()))
+                .thenComparingInt(Pokemon::getId);
+        Map<Set<Type>, List<Pokemon>> byTypes = new HashMap<>();
+        for (Pokemon p : pool) {
+            Set<Type> types = EnumSet.noneOf(Type.class);
+            types.addAll(p.getTypes());
+            byTypes.computeIfAbsent(types, k -> new ArrayList<>()).add(p);
+        }
+        List<Pokemon> list = new ArrayList<>();
+        for (List<Pokemon> same : byTypes.values()) {
+            same.sort(strongest);
+            list.addAll(same.subList(0, Math.min(size, same.size())));
+        }
+        list.sort(Comparator
+                .comparingInt((Pokemon p) -> -TeamCoverage.of(List.of(p)).score())
+                .thenComparing(strongest));
+
+        int n = list.size();
+        this.candidates = list.toArray(new Pokemon[0]);
+        this.size = Math.min(size, pool.size()); // con size por combinación siempre hay bastantes candidatos
+        this.off = new int[n];
+        this.res = new int[n];
+        this.total = new int[n];
+        for (int i = 0; i < n; i++) {
+            TeamCoverage c = TeamCoverage.of(List.of(candidates[i]));
+            off[i] = c.offensiveMask();
+            res[i] = c.resistMask();
+            total[i] = Stat.TOTAL.of(candidates[i].getStats());
+        }
+
+        this.suffixOff = new int[n + 1];
+        this.suffixRes = new int[n + 1];
+        this.suffixMaxTotal = new int[n + 1];
+        for (int i = n - 1; i >= 0; i--) {
+            suffixOff[i] = suffixOff[i + 1] | off[i];
+            suffixRes[i] = suffixRes[i + 1] | res[i];
+            suffixMaxTotal[i] = Math.max(suffixMaxTotal[i + 1], total[i]);
+        }
+    }
+
+    /** Mejor equipo de hasta {@code size} miembros (1..6) sacado de {@code pool}. */
+    public static Result best(List<Pokemon> pool, int size) {
+        if (size < 1 || size > MAX_TEAM_SIZE) throw new IllegalArgumentException("Team size must be 1.." + MAX_TEAM_SIZE);
+
+        long start = System.nanoTime();
+        TeamOptimizer opt = new TeamOptimizer(pool, size);
+        if (opt.size > 0) ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(opt::searchFirstMembers));
+
+        List<Pokemon> team = new ArrayList<>();
+        for (int i : opt.bestTeam) team.add(opt.candidates[i]);
+        team.sort(Comparator.comparingInt(Pokemon::getId));
+        return new Result(team, TeamCoverage.of(team), opt.nodes.sum(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reparte el primer nivel del árbol: una subtarea por cada posible primer miembro.
+     * Con ForkJoinTask.adapt y no subclases de RecursiveAction, que son Serializable sin necesidad.
+     */
+    private void searchFirstMembers() {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int i = 0; i + size <= candidates.length; i++) {
+            int first = i;
+            tasks.add(ForkJoinTask.adapt(() -> {
+                int[] picked = new int[size];
+                picked[0] = first;
+                search(first + 1, 1, picked, off[first], res[first], total[first]);
+            }));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    private void search(int from, int k, int[] picked, int curOff, int curRes, int curTotal) {
+        nodes.increment();
+        if (k == size) {
+            offer(picked, score(Integer.bitCount(curOff) + Integer.bitCount(curRes), curTotal));
+            return;
+        }
+        // la cota no crece al avanzar j (los sufijos solo pierden elementos): al fallar se corta el bucle
+        for (int j = from; j + (size - k) <= candidates.length; j++) {
+            if (bound(j, k, curOff, curRes, curTotal) <= bestScore.get()) break;
+            picked[k] = j;
+            search(j + 1, k + 1, picked, curOff | off[j], curRes | res[j], curTotal + total[j]);
+        }
+    }
+
+    /** Lo máximo que se puede alcanzar completando el equipo con candidatos desde {@code from}. */
+    private long bound(int from, int k, int curOff, int curRes, int curTotal) {
+        int coverage = Integer.bitCount(curOff | suffixOff[from]) + Integer.bitCount(curRes | suffixRes[from]);
+        return score(coverage, curTotal + (size - k) * suffixMaxTotal[from]);
+    }
+
+    private static long score(int coverage, int totalStats) {
+        return ((long) coverage << 16) | totalStats;
+    }
+
+    private void offer(int[] picked, long score) {
+        if (score <= bestScore.get()) return;
+        bestLock.lock();
+        try {
+            if (score > bestScore.get()) {
+                bestTeam = picked.clone();
+                bestScore.set(score);
+            }
+        } finally {
+            bestLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.hugoof06.pokedex.service;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.hugoof06.pokedex.model.Type;
+
+/**
+ * Tabla de efectividad de tipos (18x18, a partir de la 6ª generación).
+ *
+ * Se guarda en un byte[] con el multiplicador x2 (0 = inmune, 1 = x0.5, 2 = x1, 4 = x2) y
+ * además, por tipo atacante, la máscara de bits de los tipos defensores a los que hace x2.
+ * Las máscaras usan el ordinal de {@link Type} como número de bit.
+ */
+public final class TypeChart {
+
+    private static final Type[] TYPES = Type.values();
+    private static final int N = TYPES.length;
+
+    // [atacante * N + defensor] -> multiplicador x2
+    private static final byte[] CHART = new byte[N * N];
+    private static final int[] SUPER_EFFECTIVE = new int[N];
+
+    static {
+        Arrays.fill(CHART, (byte) 2);
+
+        // atacante, x2 contra..., x0.5 contra..., x0 contra...
+        row(Type.NORMAL, "", "ROCK STEEL", "GHOST");
+        row(Type.FIRE, "GRASS ICE BUG STEEL", "FIRE WATER ROCK DRAGON", "");
+        row(Type.WATER, "FIRE GROUND ROCK", "WATER GRASS DRAGON", "");
+        row(Type.ELECTRIC, "WATER FLYING", "ELECTRIC GRASS DRAGON", "GROUND");
+        row(Type.GRASS, "WATER GROUND ROCK", "FIRE GRASS POISON FLYING BUG DRAGON STEEL", "");
+        row(Type.ICE, "GRASS GROUND FLYING DRAGON", "FIRE WATER ICE STEEL", "");
+        row(Type.FIGHTING, "NORMAL ICE ROCK DARK STEEL", "POISON FLYING PSYCHIC BUG FAIRY", "GHOST");
+        row(Type.POISON, "GRASS FAIRY", "POISON GROUND ROCK GHOST", "STEEL");
+        row(Type.GROUND, "FIRE ELECTRIC POISON ROCK STEEL", "GRASS BUG", "FLYING");
+        row(Type.FLYING, "GRASS FIGHTING BUG", "ELECTRIC ROCK STEEL", "");
+        row(Type.PSYCHIC, "FIGHTING POISON", "PSYCHIC STEEL", "DARK");
+        row(Type.BUG, "GRASS PSYCHIC DARK", "FIRE FIGHTING POISON FLYING GHOST STEEL FAIRY", "");
+        row(Type.ROCK, "FIRE ICE FLYING BUG", "FIGHTING GROUND STEEL", "");
+        row(Type.GHOST, "PSYCHIC GHOST", "DARK", "NORMAL");
+        row(Type.DRAGON, "DRAGON", "STEEL", "FAIRY");
+        row(Type.DARK, "PSYCHIC GHOST", "FIGHTING DARK FAIRY", "");
+        row(Type.STEEL, "ICE ROCK FAIRY", "FIRE WATER ELECTRIC STEEL", "");
+        row(Type.FAIRY, "FIGHTING DRAGON DARK", "FIRE POISON STEEL", "");
+
+        for (Type atk : TYPES) {
+            for (Type def : TYPES) {
+                if (CHART[atk.ordinal() * N + def.ordinal()] == 4) SUPER_EFFECTIVE[atk.ordinal()] |= 1 << def.ordinal();
+            }
+        }
+    }
+
+    private TypeChart() {
+    }
+
+    private static void row(Type atk, String doubled, String halved, String immune) {
+        set(atk, doubled, 4);
+        set(atk, halved, 1);
+        set(atk, immune, 0);
+    }
+
+    private static void set(Type atk, String defenders, int value) {
+        if (defenders.isEmpty()) return;
+        for (String d : defenders.split(" ")) CHART[atk.ordinal() * N + Type.valueOf(d).ordinal()] = (byte) value;
+    }
+
+    /** Multiplicador de un ataque de tipo {@code atk} contra un defensor de tipo {@code def}. */
+    public static double multiplier(Type atk, Type def) {
+        return CHART[atk.ordinal() * N + def.ordinal()] / 2.0;
+    }
+
+    /** Multiplicador contra un defensor de uno o dos tipos (producto de los de cada tipo). */
+    public static double multiplier(Type atk, List<Type> defTypes) {
+        double m = 1;
+        for (Type def : defTypes) m *= multiplier(atk, def);
+        return m;
+    }
+
+    /** Tipos defensores (uno solo) contra los que {@code atk} es súper eficaz. */
+    public static int superEffectiveMask(Type atk) {
+        return SUPER_EFFECTIVE[atk.ordinal()];
+    }
+
+    /** Tipos atacantes que hacen más de x1 a un Pokémon con estos tipos. */
+    public static int weakMask(List<Type> defTypes) {
+        int mask = 0;
+        for (Type atk : TYPES) if (multiplier(atk, defTypes) > 1) mask |= 1 << atk.ordinal();
+        return mask;
+    }
+
+    /** Tipos atacantes que hacen menos de x1 (incluida la inmunidad) a un Pokémon con estos tipos. */
+    public static int resistMask(List<Type> defTypes) {
+        int mask = 0;
+        for (Type atk : TYPES) if (multiplier(atk, defTypes) < 1) mask |= 1 << atk.ordinal();
+        return mask;
+    }
+
+    public static Set<Type> types(int mask) {
+        Set<Type> out = EnumSet.noneOf(Type.class);
+        for (Type t : TYPES) if ((mask & (1 << t.ordinal())) != 0) out.add(t);
+        return out;
+    }
+}
@@ -6,9 +6,12 @@ import javafx.stage.Stage;
 
 public class App extends Application {
 
+    private MainView view;
+
     @Override
     public void start(Stage stage) {
-        var root = new MainView().getRoot();
+        view = new MainView();
+        var root = view.getRoot();
         var scene = new Scene(root, 1000, 650);
 
         stage.setTitle("Pokedex");
@@ -16,6 +19,11 @@ public class App extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (view != null) view.close();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
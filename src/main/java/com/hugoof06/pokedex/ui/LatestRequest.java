@@ -0,0 +1,76 @@
+package com.hugoof06.pokedex.ui;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.concurrent.Task;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Peticiones en segundo plano de las que solo importa la última (la lista, el detalle...).
+ *
+ * Cada {@link #submit} se lleva un token creciente; al publicar el resultado en el hilo de JavaFX
+ * solo se aplica si su token sigue siendo el actual, así un resultado viejo nunca pisa a uno nuevo.
+ * La petición anterior se cancela: si aún estaba en cola ya no se ejecuta, y si ya estaba en marcha
+ * termina pero se ignora (no se interrumpe: un interrupt cerraría los FileChannel de la caché).
+ *
+ * Se usa solo desde el hilo de JavaFX.
+ */
+final class LatestRequest {
+
+    private final ExecutorService executor;
+    private final ReadOnlyBooleanWrapper loading = new ReadOnlyBooleanWrapper(false);
+
+    private long token;
+    private Task<?> current;
+
+    LatestRequest(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /** true mientras haya una petición vigente sin terminar (para los indicadores de carga). */
+    ReadOnlyBooleanProperty loadingProperty() {
+        return loading.getReadOnlyProperty();
+    }
+
+    <T> void submit(Callable<T> work, Consumer<T> onResult, Consumer<Exception> onError) {
+        long my = ++token;
+        if (current != null) current.cancel(false);
+
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                try {
+                    T result = work.call();
+                    Platform.runLater(() -> publish(my, () -> onResult.accept(result)));
+                    return result;
+                } catch (Exception e) {
+                    Platform.runLater(() -> publish(my, () -> onError.accept(e)));
+                    throw e;
+                }
+            }
+        };
+
+        current = task;
+        loading.set(true);
+        executor.execute(task);
+    }
+
+    /** Descarta la petición en curso (su resultado ya no se aplicará). */
+    void cancel() {
+        token++;
+        if (current != null) current.cancel(false);
+        current = null;
+        loading.set(false);
+    }
+
+    private void publish(long my, Runnable apply) {
+        if (my != token) return; // la ha sustituido otra más nueva
+        current = null;
+        loading.set(false);
+        apply.run();
+    }
+}
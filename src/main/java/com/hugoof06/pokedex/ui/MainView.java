@@ -1,15 +1,21 @@
 package com.hugoof06.pokedex.ui;
 
 import com.hugoof06.pokedex.cache.FilePokemonCache;
+import com.hugoof06.pokedex.cache.MemoryPokemonCache;
 import com.hugoof06.pokedex.data.*;
 import com.hugoof06.pokedex.favorites.FavoritesRepository;
 import com.hugoof06.pokedex.favorites.FavoritesService;
 import com.hugoof06.pokedex.model.Generation;
 import com.hugoof06.pokedex.model.Pokemon;
 import com.hugoof06.pokedex.model.Type;
+import com.hugoof06.pokedex.service.NameMatches;
 import com.hugoof06.pokedex.service.PokedexService;
 
+import javafx.animation.PauseTransition;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.collections.FXCollections;
+import javafx.geometry.Pos;
 import javafx.geometry.Insets;
 import javafx.scene.Parent;
 import javafx.scene.control.*;
@@ -17,10 +23,12 @@ import javafx.scene.layout.*;
 import javafx.scene.text.Text;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.util.Duration;
 
 
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainView {
 
@@ -28,17 +36,38 @@ public class MainView {
 
     // data/services
     private final FilePokemonCache cache = new FilePokemonCache();
+    private final MemoryPokemonCache memoryCache = new MemoryPokemonCache(); // compartida al cambiar de fuente
+    private final java.util.Map<String, PokemonRepository> repos = new java.util.HashMap<>();
     private PokemonRepository repo;
     private PokedexService service;
 
     private final FavoritesService favService =
             new FavoritesService(new FavoritesRepository());
 
+    // todo lo que toca el servicio va en segundo plano; pocos hilos, y cada canal solo deja viva su última petición
+    private final ExecutorService loaderPool = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "pokedex-ui-loader");
+        t.setDaemon(true);
+        return t;
+    });
+    private final LatestRequest listLoader = new LatestRequest(loaderPool);
+    private final LatestRequest detailLoader = new LatestRequest(loaderPool);
+    // los trozos del scroll van aparte: así nunca se ponen en cola delante de la lista o el detalle
+    private final ExecutorService chunkPool = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "pokedex-ui-chunks");
+        t.setDaemon(true);
+        return t;
+    });
+
     // UI state
     private Generation currentGen = Generation.GEN_1;
     private boolean favoritesOnly = false;
-    private int pageSize = 20;
-    private int page = 1;
+    private RowWindow window; // filas del listado/búsqueda actual, cargadas por trozos al hacer scroll
+    private final BooleanProperty chunksLoading = new SimpleBooleanProperty(false);
+    private NameMatches searchMatches; // último resultado de búsqueda mostrado (para afinar el siguiente)
+
+    // búsqueda mientras se escribe: se lanza cuando se deja de teclear un momento
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(150));
 
     // UI components
     private final ComboBox<String> sourceBox = new ComboBox<>();
@@ -46,10 +75,9 @@ public class MainView {
     private final TextField searchField = new TextField();
     private final Button searchBtn = new Button("Search");
     private final Button listBtn = new Button("List");
-    private final Button prevBtn = new Button("<");
-    private final Button nextBtn = new Button(">");
-    private final Label pageLabel = new Label();
-    private final ListView<String> listView = new ListView<>();
+    private final Label countLabel = new Label();
+    private final ProgressIndicator listProgress = new ProgressIndicator();
+    private final ListView<PokemonRow> listView = new ListView<>();
     private final VBox detailBox = new VBox(8);
 
     // current selection
@@ -68,6 +96,11 @@ public class MainView {
         return root;
     }
 
+    /** Al cerrar la aplicación: vuelca lo que la caché en disco tenga pendiente. */
+    public void close() {
+        cache.close();
+    }
+
     private void buildTopBar() {
         sourceBox.setItems(FXCollections.observableArrayList("api", "json"));
         sourceBox.setValue("api");
@@ -78,19 +111,21 @@ public class MainView {
         searchField.setPromptText("Search name (e.g. char)");
         searchField.setPrefColumnCount(18);
 
-        listBtn.setOnAction(e -> {
-            page = 1;
-            refreshList();
-        });
+        listBtn.setOnAction(e -> refreshList());
 
         searchBtn.setOnAction(e -> {
-            page = 1;
+            searchDebounce.stop();
             refreshSearch();
         });
+        searchField.setOnAction(e -> searchBtn.fire());
+
+        searchDebounce.setOnFinished(e -> refreshListOrSearchDepending()); // texto vacío -> vuelve al listado
+        searchField.textProperty().addListener((obs, old, now) -> {
+            if (!favoritesOnly) searchDebounce.playFromStart();
+        });
 
         genBox.setOnAction(e -> {
             currentGen = genBox.getValue();
-            page = 1;
             refreshList();
         });
 
@@ -99,11 +134,9 @@ public class MainView {
         CheckBox favOnlyCheck = new CheckBox("Show only favorites");
         favOnlyCheck.selectedProperty().addListener((obs, old, now) -> {
             favoritesOnly = now;
-            page = 1;
             searchField.setDisable(now);
             searchBtn.setDisable(now);
             listBtn.setDisable(now);
-            updatePagingUI();
             refreshListOrSearchDepending();
         });
 
@@ -119,19 +152,39 @@ public class MainView {
 
     private void buildCenter() {
         listView.setPrefWidth(340);
+        listView.setCellFactory(lv -> new PokemonCell());
+        listView.setFixedCellSize(24); // todas las celdas iguales: el ListView no tiene que medir filas
 
         listView.getSelectionModel().selectedItemProperty().addListener((obs, old, now) -> {
-            if (now == null) return;
-
-            // item format: "001 Bulbasaur" or "name"
-            String token = now.split("\\s+")[0];
-            String idOrName = token.matches("\\d{1,3}") ? String.valueOf(Integer.parseInt(token)) : now;
+            if (now == null || isShowing(now)) return;
+
+            // la fila ya trae el Pokémon: se pinta directamente, sin volver a pedirlo
+            if (now.isLoaded()) {
+                detailLoader.cancel();
+                selectedPokemon = now.pokemon();
+                renderDetail(now.pokemon());
+                return;
+            }
 
-            Optional<Pokemon> p = service.show(idOrName);
-            p.ifPresent(pk -> {
-                selectedPokemon = pk;
-                renderDetail(pk);
-            });
+            // solo nombre (búsqueda aún sin resolver) o id (favorito no cargado): hay que pedirlo
+            PokedexService svc = service;
+            Generation gen = currentGen;
+            String key = now.lookupKey();
+            showLoading(detailBox);
+            detailLoader.submit(() -> svc.show(key, gen),
+                    p -> {
+                        if (p.isPresent()) {
+                            selectedPokemon = p.get();
+                            renderDetail(p.get());
+                            // show() cae al nombre más parecido si este no existe: que se vea que no es el pedido
+                            if (!key.matches("\\d+") && !p.get().getName().equalsIgnoreCase(key)) {
+                                detailBox.getChildren().add(0, new Text("(closest match for '" + key + "')"));
+                            }
+                        } else {
+                            detailBox.getChildren().setAll(new Text("Not found: " + key));
+                        }
+                    },
+                    this::showDetailError);
         });
 
         detailBox.setPadding(new Insets(12));
@@ -145,23 +198,13 @@ public class MainView {
     }
 
     private void buildBottomBar() {
-        prevBtn.setOnAction(e -> {
-            if (page > 1) {
-                page--;
-                refreshListOrSearchDepending();
-            }
-        });
-
-        nextBtn.setOnAction(e -> {
-            page++;
-            refreshListOrSearchDepending();
-        });
-
-        updatePageLabel();
+        listProgress.setPrefSize(18, 18);
+        listProgress.visibleProperty().bind(listLoader.loadingProperty().or(chunksLoading));
 
-        HBox bottom = new HBox(10, prevBtn, pageLabel, nextBtn,
+        HBox bottom = new HBox(10, countLabel, listProgress,
                 new Label("Cache:"), new Label(cache.location()));
         bottom.setPadding(new Insets(10));
+        bottom.setAlignment(Pos.CENTER_LEFT);
         root.setBottom(bottom);
     }
 
@@ -177,44 +220,117 @@ public class MainView {
     }
 
     private void refreshList() {
-        updatePageLabel();
-        List<Pokemon> results = service.list(currentGen, page, pageSize);
-
-        listView.setItems(FXCollections.observableArrayList(
-                results.stream()
-                        .map(p -> String.format("%03d %s", p.getId(), p.getName()))
-                        .toList()
-        ));
-
-        if (!results.isEmpty()) {
-            listView.getSelectionModel().select(0);
-        } else {
-            detailBox.getChildren().setAll(new Text("No results"));
-        }
+        // todos los nombres de la generación (de memoria tras la primera vez); los Pokémon, según se vean
+        PokedexService svc = service;
+        Generation gen = currentGen;
+        listLoader.submit(() -> svc.names(gen),
+                names -> showWindow(svc, names, "No results"),
+                this::showListError);
     }
 
     private void refreshSearch() {
-        updatePageLabel();
         String q = searchField.getText().trim();
         if (q.isEmpty()) {
             refreshList();
             return;
         }
 
-        // API-friendly: returns names only
-        List<String> names = service.searchNames(currentGen, q, page, pageSize);
+        // Desde el diccionario de nombres en memoria, afinando el resultado anterior si la consulta lo amplía;
+        // solo son nombres, los Pokémon se cargan por trozos al hacer scroll
+        PokedexService svc = service;
+        Generation gen = currentGen;
+        NameMatches previous = searchMatches;
+        listLoader.submit(() -> svc.matchNames(gen, q, previous),
+                matches -> {
+                    searchMatches = matches;
+                    showWindow(svc, matches.names(), "No results");
+                },
+                this::showListError);
+    }
+
+    /** Muestra una lista de nombres de cualquier tamaño; sus Pokémon se cargan por trozos según se ven. */
+    private void showWindow(PokedexService svc, List<String> names, String emptyText) {
+        disposeWindow();
+        window = new RowWindow(names, svc::findByNames, chunkPool, chunksLoading);
+        setRows(window, emptyText);
+    }
+
+    private void disposeWindow() {
+        if (window != null) window.dispose();
+        window = null;
+    }
+
+    /** Texto de una fila; en favoritos se añaden la generación y los tipos. */
+    private String label(PokemonRow row) {
+        if (!row.isLoaded()) {
+            return row.name() != null ? row.name() : String.format("%03d (NOT LOADED)", row.id());
+        }
+        Pokemon p = row.pokemon();
+        String text = String.format("%03d %s", p.getId(), p.getName());
+        return favoritesOnly ? text + " [" + p.getGeneration() + "] " + p.getTypes() : text;
+    }
+
+    /** Las celdas se reutilizan al hacer scroll: solo se cambia su texto. */
+    private final class PokemonCell extends ListCell<PokemonRow> {
+        @Override
+        protected void updateItem(PokemonRow row, boolean empty) {
+            super.updateItem(row, empty);
+            setText(empty || row == null ? null : label(row));
+            // la carga por trozos sigue a lo que se ve, no a cada get() del ListView
+            if (!empty && window != null && getListView().getItems() == window) window.showing(getIndex());
+        }
+    }
+
+    private void showRows(List<PokemonRow> rows, String emptyText) {
+        disposeWindow();
+        setRows(FXCollections.observableArrayList(rows), emptyText);
+    }
 
-        listView.setItems(FXCollections.observableArrayList(
-                names.stream().map(n -> n).toList()
-        ));
+    private void setRows(javafx.collections.ObservableList<PokemonRow> rows, String emptyText) {
+        listView.setItems(rows);
+        listView.scrollTo(0);
+        countLabel.setText(favoritesOnly ? rows.size() + " favorites" : rows.size() + " Pokémon");
 
-        if (!names.isEmpty()) {
+        if (!rows.isEmpty()) {
             listView.getSelectionModel().select(0);
         } else {
-            detailBox.getChildren().setAll(new Text("No results"));
+            showMessage(emptyText);
         }
     }
 
+    private void showListError(Exception e) {
+        disposeWindow();
+        listView.setItems(FXCollections.observableArrayList());
+        countLabel.setText("");
+        showMessage("Error: " + e.getMessage());
+    }
+
+    private void showMessage(String text) {
+        detailLoader.cancel();
+        selectedPokemon = null;
+        detailBox.getChildren().setAll(new Text(text));
+    }
+
+    /**
+     * true si la fila es el Pokémon que ya se está mostrando: al cargarse o descartarse su trozo la
+     * fila seleccionada cambia de objeto, pero no hace falta volver a pintarlo ni a pedirlo.
+     */
+    private boolean isShowing(PokemonRow row) {
+        if (selectedPokemon == null) return false;
+        if (row.isLoaded()) return row.pokemon().getId() == selectedPokemon.getId();
+        return row.name() != null && row.name().equalsIgnoreCase(selectedPokemon.getName());
+    }
+
+    private void showDetailError(Exception e) {
+        detailBox.getChildren().setAll(new Text("Error: " + e.getMessage()));
+    }
+
+    private static void showLoading(Pane box) {
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setPrefSize(32, 32);
+        box.getChildren().setAll(new HBox(8, progress, new Label("Loading…")));
+    }
+
     private void renderDetail(Pokemon p) {
         Button favBtn = new Button(isFav(p.getId()) ? "★ Unfavorite" : "☆ Favorite");
         favBtn.setOnAction(e -> {
@@ -239,13 +355,39 @@ public class MainView {
             sprite.setImage(new Image(p.getSpriteUrl(), true)); // carga en background
         }
 
+        // Pokémon de stats parecidos (dentro de la generación actual); se calcula al pedirlo
+        VBox similarBox = new VBox(4);
+        Button similarBtn = new Button("Similar Pokémon");
+        similarBtn.setOnAction(e -> {
+            PokedexService svc = service;
+            Generation gen = currentGen;
+            showLoading(similarBox);
+            detailLoader.submit(() -> svc.similar(p, 5, null, gen),
+                    similar -> {
+                        similarBox.getChildren().setAll(new Label("Similar stats (Gen " + gen + "):"));
+                        for (Pokemon s : similar) {
+                            Hyperlink link = new Hyperlink(String.format("%03d %s", s.getId(), s.getName()));
+                            link.setOnAction(ev -> {
+                                detailLoader.cancel();
+                                selectedPokemon = s;
+                                renderDetail(s);
+                            });
+                            similarBox.getChildren().add(link);
+                        }
+                        if (similar.isEmpty()) similarBox.getChildren().add(new Text("No results"));
+                    },
+                    ex -> similarBox.getChildren().setAll(new Text("Error: " + ex.getMessage())));
+        });
+
         detailBox.getChildren().setAll(
                 sprite,
                 new Text("#" + String.format("%03d", p.getId()) + " " + p.getName()),
                 new Text("Gen: " + p.getGeneration()),
                 new Text("Types: " + p.getTypes()),
                 new Text("Stats: " + p.getStats()),
-                favBtn
+                favBtn,
+                similarBtn,
+                similarBox
         );
     }
 
@@ -253,79 +395,47 @@ public class MainView {
         return favService.listIds().contains(id);
     }
 
-    private void updatePageLabel() {
-        updatePagingUI();
-    }
-
     private void alert(String msg) {
         Alert a = new Alert(Alert.AlertType.INFORMATION, msg, ButtonType.OK);
         a.showAndWait();
     }
 
     private void setSource(String source) {
-        PokemonRepository base = source.equals("json")
+        // Cada fuente se construye una sola vez: volver a ella reutiliza sus datos e índices ya cargados
+        // el JSON ya está entero en memoria: solo la API va detrás de las cachés
+        this.repo = repos.computeIfAbsent(source, s -> s.equals("json")
                 ? new JsonPokemonRepository()
-                : new PokeApiPokemonRepository();
-
-        this.repo = new CachedPokemonRepository(base, cache);
+                : new CachedPokemonRepository(new PokeApiPokemonRepository(), cache, memoryCache));
         this.service = new PokedexService(repo);
 
         // reset de estado UI
-        this.page = 1;
+        this.searchMatches = null;
         this.selectedPokemon = null;
 
         refreshListOrSearchDepending();
     }
 
-    private void updatePagingUI() {
-        boolean pagingEnabled = !favoritesOnly;
-        prevBtn.setDisable(!pagingEnabled);
-        nextBtn.setDisable(!pagingEnabled);
-        pageLabel.setText(favoritesOnly ? "Favorites" : ("Page " + page));
-    }
-
     private void refreshFavorites() {
-        updatePagingUI();
-
         var ids = favService.listIds();
 
-        record LoadedItem(int id, Pokemon p) {}
-        var loaded = new java.util.ArrayList<LoadedItem>();
-        var notLoaded = new java.util.ArrayList<Integer>();
-
-        for (int id : ids) {
-            var opt = service.show(String.valueOf(id));
-            if (opt.isPresent()) loaded.add(new LoadedItem(id, opt.get()));
-            else notLoaded.add(id);
-        }
+        // una sola llamada para todos los favoritos (caché en lote, y a la fuente solo los que falten)
+        PokedexService svc = service;
+        listLoader.submit(() -> svc.findByIds(ids), this::showFavorites, this::showListError);
+    }
 
+    private void showFavorites(PokemonBatch batch) {
+        var loaded = new java.util.ArrayList<>(batch.found());
         loaded.sort(java.util.Comparator
-                .comparing((LoadedItem it) -> it.p.getGeneration())
-                .thenComparingInt(it -> it.p.getId()));
+                .comparing(Pokemon::getGeneration)
+                .thenComparingInt(Pokemon::getId));
 
+        var notLoaded = new java.util.ArrayList<>(batch.missing());
         notLoaded.sort(Integer::compareTo);
 
-        var lines = new java.util.ArrayList<String>();
+        var rows = new java.util.ArrayList<PokemonRow>();
+        for (Pokemon p : loaded) rows.add(PokemonRow.of(p));
+        for (int id : notLoaded) rows.add(PokemonRow.notLoaded(id));
 
-        for (var it : loaded) {
-            Pokemon p = it.p;
-            lines.add(String.format("%03d %s [%s] %s",
-                    p.getId(),
-                    p.getName(),
-                    p.getGeneration(),
-                    p.getTypes()
-            ));
-        }
-        for (int id : notLoaded) {
-            lines.add(String.format("%03d (NOT LOADED)", id));
-        }
-
-        listView.setItems(FXCollections.observableArrayList(lines));
-
-        if (!lines.isEmpty()) {
-            listView.getSelectionModel().select(0);
-        } else {
-            detailBox.getChildren().setAll(new Text("No favorites yet"));
-        }
+        showRows(rows, "No favorites yet");
     }
 }
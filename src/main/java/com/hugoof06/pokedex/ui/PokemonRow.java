@@ -0,0 +1,32 @@
+package com.hugoof06.pokedex.ui;
+
+import com.hugoof06.pokedex.model.Pokemon;
+
+/**
+ * Fila de la lista de MainView: el Pokémon ya cargado o, mientras no lo está, lo único que se sabe
+ * de él (el nombre en los resultados de búsqueda, el id en los favoritos que no se pudieron cargar).
+ */
+record PokemonRow(int id, String name, Pokemon pokemon) {
+
+    static PokemonRow of(Pokemon p) {
+        return new PokemonRow(p.getId(), p.getName(), p);
+    }
+
+    /** Resultado de búsqueda del que de momento solo se tiene el nombre. */
+    static PokemonRow ofName(String name) {
+        return new PokemonRow(0, name, null);
+    }
+
+    static PokemonRow notLoaded(int id) {
+        return new PokemonRow(id, null, null);
+    }
+
+    boolean isLoaded() {
+        return pokemon != null;
+    }
+
+    /** Lo que hay que pasarle a {@code PokedexService.show} para cargarlo. */
+    String lookupKey() {
+        return name != null ? name : String.valueOf(id);
+    }
+}
@@ -0,0 +1,165 @@
+package com.hugoof06.pokedex.ui;
+
+import com.hugoof06.pokedex.model.Pokemon;
+
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.collections.ObservableListBase;
+import javafx.concurrent.Task;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Filas del ListView para scroll infinito: se conocen todos los nombres desde el principio (así el
+ * ListView sabe cuántas filas hay y se puede ir a cualquiera), pero los Pokémon se cargan por trozos
+ * de {@link #CHUNK} filas cuando una celda visible avisa con {@link #showing}, y el trozo vecino en
+ * cuanto se acerca su borde. Mientras no llega, la fila es solo el nombre. {@link #get} solo lee: el
+ * ListView lo llama también para filas que no pinta.
+ *
+ * Como mucho hay {@link #MAX_CHUNKS} trozos cargados: al pasarse se descarta el más alejado del que
+ * se está viendo y sus filas vuelven a ser solo el nombre (si se vuelve a él se carga otra vez).
+ *
+ * Se usa solo desde el hilo de JavaFX; la carga de cada trozo va al executor como un Task, que se
+ * cancela en {@link #dispose} si aún no había empezado.
+ */
+final class RowWindow extends ObservableListBase<PokemonRow> {
+
+    static final int CHUNK = 40;
+    static final int MAX_CHUNKS = 5;
+
+    private final List<String> names;
+    private final Function<List<String>, Map<String, Pokemon>> loader;
+    private final Executor executor;
+    private final BooleanProperty loading;
+
+    private final Map<Integer, PokemonRow[]> chunks = new HashMap<>();
+    private final Map<Integer, Task<?>> pending = new HashMap<>();
+    private int focus; // trozo de la última fila mostrada
+    private boolean disposed;
+
+    /**
+     * @param names   nombres de todas las filas, en orden
+     * @param loader  carga los Pokémon de un trozo de nombres (se llama fuera del hilo de JavaFX)
+     * @param loading se pone a true mientras haya algún trozo cargándose
+     */
+    RowWindow(List<String> names, Function<List<String>, Map<String, Pokemon>> loader,
+              Executor executor, BooleanProperty loading) {
+        this.names = List.copyOf(names);
+        this.loader = loader;
+        this.executor = executor;
+        this.loading = loading;
+    }
+
+    @Override
+    public int size() {
+        return names.size();
+    }
+
+    @Override
+    public PokemonRow get(int index) {
+        Objects.checkIndex(index, names.size());
+        PokemonRow[] rows = chunks.get(index / CHUNK);
+        return rows != null ? rows[index % CHUNK] : PokemonRow.ofName(names.get(index));
+    }
+
+    /**
+     * La fila {@code index} se está mostrando (lo llama la celda del ListView): pide su trozo si no está
+     * y, cerca del borde, también el de ese lado. Ese trozo pasa a ser el que se está viendo.
+     */
+    void showing(int index) {
+        if (index < 0 || index >= names.size()) return;
+        int chunk = index / CHUNK;
+        int offset = index % CHUNK;
+        focus = chunk;
+
+        request(chunk);
+        if (offset >= CHUNK * 3 / 4) request(chunk + 1);
+        else if (offset < CHUNK / 4) request(chunk - 1);
+    }
+
+    /**
+     * Deja de cargar: lo que esté en cola ya no se ejecuta y lo que esté en marcha se descarta al llegar
+     * (no se interrumpe: un interrupt cerraría los FileChannel de la caché).
+     */
+    void dispose() {
+        disposed = true;
+        for (Task<?> task : pending.values()) task.cancel(false);
+        pending.clear();
+        chunks.clear();
+        loading.set(false);
+    }
+
+    private void request(int chunk) {
+        if (disposed || chunk < 0 || chunk * CHUNK >= names.size()) return;
+        if (chunks.containsKey(chunk) || pending.containsKey(chunk)) return;
+        loading.set(true);
+
+        int from = chunk * CHUNK;
+        List<String> slice = names.subList(from, Math.min(from + CHUNK, names.size()));
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() {
+                Map<String, Pokemon> found = null;
+                try {
+                    found = loader.apply(slice);
+                } finally {
+                    Map<String, Pokemon> result = found;
+                    Platform.runLater(() -> loaded(chunk, this, slice, result));
+                }
+                return null;
+            }
+        };
+        pending.put(chunk, task);
+        executor.execute(task);
+    }
+
+    private void loaded(int chunk, Task<?> task, List<String> slice, Map<String, Pokemon> found) {
+        if (disposed || pending.get(chunk) != task) return;
+        pending.remove(chunk);
+        loading.set(!pending.isEmpty());
+
+        // si ha fallado se quedan como nombre: al seleccionar una se carga ella sola
+        PokemonRow[] rows = new PokemonRow[slice.size()];
+        for (int i = 0; i < rows.length; i++) {
+            Pokemon p = found == null ? null : found.get(slice.get(i));
+            rows[i] = p != null ? PokemonRow.of(p) : PokemonRow.ofName(slice.get(i));
+        }
+        replace(chunk, placeholders(chunk), rows);
+        evictFarthest();
+    }
+
+    private void evictFarthest() {
+        while (chunks.size() > MAX_CHUNKS) {
+            int farthest = chunks.keySet().stream()
+                    .max((a, b) -> Integer.compare(Math.abs(a - focus), Math.abs(b - focus)))
+                    .orElseThrow();
+            PokemonRow[] old = chunks.get(farthest);
+            replace(farthest, old, null);
+        }
+    }
+
+    /** Cambia las filas de un trozo ({@code rows} null = descartarlo) y avisa al ListView. */
+    private void replace(int chunk, PokemonRow[] removed, PokemonRow[] rows) {
+        if (rows == null) chunks.remove(chunk);
+        else chunks.put(chunk, rows);
+
+        int from = chunk * CHUNK;
+        beginChange();
+        nextReplace(from, from + removed.length, Arrays.asList(removed));
+        endChange();
+    }
+
+    private PokemonRow[] placeholders(int chunk) {
+        int from = chunk * CHUNK;
+        int to = Math.min(from + CHUNK, names.size());
+        PokemonRow[] rows = new PokemonRow[to - from];
+        for (int i = from; i < to; i++) rows[i - from] = PokemonRow.ofName(names.get(i));
+        return rows;
+    }
+}
@@ -0,0 +1,219 @@
+package com.hugoof06.pokedex.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hugoof06.pokedex.model.Generation;
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stats;
+import com.hugoof06.pokedex.model.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilePokemonCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void survivesReopen() {
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            for (int id = 1; id <= 3; id++) cache.put(mon(id, 1));
+        }
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            for (int id = 1; id <= 3; id++) assertVersion(cache, id, 1);
+            assertEquals(Set.of(1, 3), cache.getByIds(List.of(1, 3, 99)).keySet());
+        }
+    }
+
+    @Test
+    void tornAppendAtTheEndIsDropped() throws IOException {
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            for (int id = 1; id <= 3; id++) cache.put(mon(id, 1));
+        }
+        long good = Files.size(log());
+
+        // cabecera de un registro de 1000 bytes del que solo llegaron 10 (corte en plena escritura)
+        ByteBuffer torn = ByteBuffer.allocate(12 + 10).putInt(1000).putInt(4).putInt(0);
+        try (FileChannel ch = FileChannel.open(log(), StandardOpenOption.APPEND)) {
+            ch.write(torn.flip());
+        }
+
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            for (int id = 1; id <= 3; id++) assertVersion(cache, id, 1);
+            assertTrue(cache.getById(4).isEmpty());
+            assertEquals(good, Files.size(log())); // la cola rota se trunca
+
+            cache.put(mon(4, 1));
+        }
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            assertVersion(cache, 4, 1);
+        }
+    }
+
+    @Test
+    void truncatedLastRecordIsDropped() throws IOException {
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            for (int id = 1; id <= 3; id++) {
+                cache.put(mon(id, 1));
+                cache.flush(); // en orden de id: el último registro del log es el #3
+            }
+        }
+        try (FileChannel ch = FileChannel.open(log(), StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 5);
+        }
+
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            assertVersion(cache, 1, 1);
+            assertVersion(cache, 2, 1);
+            assertTrue(cache.getById(3).isEmpty());
+            assertEquals(2, cache.countCachedPokemons());
+        }
+    }
+
+    @Test
+    void compactionKeepsTheLatestVersionOfEveryId() throws IOException {
+        int rounds = writeManyVersions();
+
+        // 10 ids x rounds versiones son cientos de KB: sin compactar el log no bajaría del umbral
+        assertTrue(Files.size(log()) < 300 * 1024, "log not compacted: " + Files.size(log()));
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            assertEquals(10, cache.countCachedPokemons());
+            for (int id = 1; id <= 10; id++) assertVersion(cache, id, rounds);
+        }
+    }
+
+    @Test
+    void staleIndexFromBeforeCompactionIsNotTrusted() throws IOException {
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            for (int id = 1; id <= 10; id++) cache.put(mon(id, 0));
+        }
+        Path oldIndex = dir.resolve("old.idx");
+        Files.copy(index(), oldIndex);
+
+        int rounds = writeManyVersions();
+        // el índice de antes de compactar vuelve a su sitio: sus offsets son del log viejo
+        Files.copy(oldIndex, index(), StandardCopyOption.REPLACE_EXISTING);
+
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            for (int id = 1; id <= 10; id++) assertVersion(cache, id, rounds);
+            assertEquals(10, cache.getByIds(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)).size());
+        }
+    }
+
+    @Test
+    void countAndClear() {
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            for (int id = 1; id <= 3; id++) cache.put(mon(id, 1));
+            cache.flush();
+            cache.put(mon(3, 2)); // mismo id: no suma
+            cache.put(mon(4, 1)); // aún en la cola
+            assertEquals(4, cache.countCachedPokemons());
+
+            assertEquals(4, cache.clear());
+            assertEquals(0, cache.countCachedPokemons());
+            assertTrue(cache.getById(1).isEmpty());
+        }
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            assertEquals(0, cache.countCachedPokemons());
+        }
+    }
+
+    @Test
+    void importsLegacyPerPokemonFiles() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Files.createDirectories(dir);
+        mapper.writeValue(dir.resolve("pokemon_1.json").toFile(), mon(1, 7));
+        mapper.writeValue(dir.resolve("pokemon_25.json").toFile(), mon(25, 7));
+        Files.writeString(dir.resolve("pokemon_3.json"), "{ not json");
+
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            assertVersion(cache, 1, 7);
+            assertVersion(cache, 25, 7);
+            assertTrue(cache.getById(3).isEmpty());
+            assertEquals(2, cache.countCachedPokemons());
+        }
+        try (var left = Files.newDirectoryStream(dir, "pokemon_*.json")) {
+            assertFalse(left.iterator().hasNext());
+        }
+    }
+
+    @Test
+    void reopensAfterAnInterruptClosesTheLog() throws Exception {
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            cache.put(mon(1, 1));
+            cache.flush();
+
+            // leer con el hilo interrumpido cierra el FileChannel (ClosedByInterruptException)
+            Thread reader = new Thread(() -> {
+                Thread.currentThread().interrupt();
+                cache.getById(1);
+            });
+            reader.start();
+            reader.join();
+
+            assertVersion(cache, 1, 1);
+            cache.put(mon(2, 1));
+            cache.flush();
+            assertVersion(cache, 2, 1);
+        }
+    }
+
+    @Test
+    void putAfterCloseIsWrittenRightAway() {
+        FilePokemonCache cache = new FilePokemonCache(dir);
+        cache.put(mon(1, 1));
+        cache.close();
+
+        cache.put(mon(2, 1)); // sin hilo de fondo: se escribe ya
+        try (FilePokemonCache other = new FilePokemonCache(dir)) {
+            assertVersion(other, 1, 1);
+            assertVersion(other, 2, 1);
+        }
+        cache.close();
+    }
+
+    /** Muchas versiones de los ids 1..10, una ronda por flush, hasta que toca compactar. */
+    private int writeManyVersions() {
+        int rounds = 300;
+        try (FilePokemonCache cache = new FilePokemonCache(dir)) {
+            for (int v = 1; v <= rounds; v++) {
+                for (int id = 1; id <= 10; id++) cache.put(mon(id, v));
+                cache.flush();
+            }
+        } // close espera a la compactación que esté en marcha
+        return rounds;
+    }
+
+    private Path log() {
+        return dir.resolve("pokemon.log");
+    }
+
+    private Path index() {
+        return dir.resolve("pokemon.idx");
+    }
+
+    private static Pokemon mon(int id, int version) {
+        return new Pokemon(id, "Mon" + id + "-v" + version, Generation.GEN_1, List.of(Type.NORMAL),
+                new Stats(50, 50, 50, 50, 50, 50), "https://img.example/" + id + ".png");
+    }
+
+    private static void assertVersion(FilePokemonCache cache, int id, int version) {
+        Optional<Pokemon> p = cache.getById(id);
+        assertTrue(p.isPresent(), "#" + id + " missing");
+        assertEquals("Mon" + id + "-v" + version, p.get().getName());
+    }
+}
@@ -0,0 +1,89 @@
+package com.hugoof06.pokedex.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpResponseCacheTest {
+
+    private static final String PATH = "/generation/1/";
+    private static final String BODY = "{\"id\":1,\"pokemon_species\":[{\"name\":\"bulbasaur\"}]}";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storedResponseIsReadBackByAnotherInstance() throws IOException {
+        new HttpResponseCache(dir, Duration.ofHours(1)).store(PATH, BODY, "\"v1\"", null);
+
+        HttpResponseCache cache = new HttpResponseCache(dir, Duration.ofHours(1));
+        HttpResponseCache.Entry e = cache.get(PATH).orElseThrow();
+        assertEquals("\"v1\"", e.etag());
+        assertEquals("etag:\"v1\"", e.version());
+        assertTrue(cache.isFresh(e));
+        assertEquals("bulbasaur", cache.json(e).get("pokemon_species").get(0).get("name").asText());
+    }
+
+    @Test
+    void memoryKeepsTheParsedJsonButNotTheBody() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(dir, Duration.ofHours(1));
+        cache.store(PATH, BODY, "\"v1\"", null);
+
+        HttpResponseCache.Entry e = cache.get(PATH).orElseThrow();
+        assertNull(e.body());
+        assertEquals(1, cache.json(e).get("id").asInt());
+    }
+
+    @Test
+    void revalidationReplacesTheEntryAndPersistsIt() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(dir, Duration.ofMillis(50));
+        cache.store(PATH, BODY, "\"v1\"", null);
+        HttpResponseCache.Entry old = cache.get(PATH).orElseThrow();
+        sleep(60);
+        assertFalse(cache.isFresh(old));
+
+        cache.revalidated(old);
+        HttpResponseCache.Entry fresh = cache.get(PATH).orElseThrow();
+        assertTrue(cache.isFresh(fresh));
+        assertFalse(cache.isFresh(old)); // la entrada vieja no se toca
+        assertTrue(fresh.storedAt() > old.storedAt());
+
+        // en disco, con su cuerpo y la hora nueva
+        HttpResponseCache other = new HttpResponseCache(dir, Duration.ofMillis(50));
+        HttpResponseCache.Entry persisted = other.get(PATH).orElseThrow();
+        assertEquals(fresh.storedAt(), persisted.storedAt());
+        assertEquals(BODY, persisted.body());
+    }
+
+    @Test
+    void writesLeaveNoTemporaryFiles() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(dir, Duration.ZERO);
+        cache.store(PATH, BODY, "\"v1\"", null);
+        cache.revalidated(cache.get(PATH).orElseThrow());
+        cache.store("/type/fire/", "{}", null, "Tue, 01 Oct 2024 10:00:00 GMT");
+
+        try (var files = Files.list(dir)) {
+            assertEquals(2, files.filter(f -> f.toString().endsWith(".json")).count());
+        }
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.filter(f -> f.toString().endsWith(".tmp")).count());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
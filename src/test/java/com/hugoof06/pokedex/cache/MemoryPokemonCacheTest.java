@@ -0,0 +1,67 @@
+package com.hugoof06.pokedex.cache;
+
+import com.hugoof06.pokedex.model.Generation;
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stats;
+import com.hugoof06.pokedex.model.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryPokemonCacheTest {
+
+    @Test
+    void leastRecentlyUsedGoesFirst() {
+        MemoryPokemonCache cache = new MemoryPokemonCache(2, Long.MAX_VALUE);
+        cache.put(mon(1));
+        cache.put(mon(2));
+        cache.getById(1); // el 2 pasa a ser el menos usado
+        cache.put(mon(3));
+
+        assertTrue(cache.getById(2).isEmpty());
+        assertEquals(Set.of(1, 3), cache.getByIds(List.of(1, 2, 3)).keySet());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void concurrentUseFromVirtualThreadsKeepsTheCountsConsistent() throws Exception {
+        MemoryPokemonCache cache = new MemoryPokemonCache(64, Long.MAX_VALUE);
+        int threads = 32, rounds = 500;
+        List<Future<?>> done = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < threads; t++) {
+                int base = t;
+                done.add(pool.submit(() -> {
+                    for (int i = 0; i < rounds; i++) {
+                        cache.put(mon(1 + (base * rounds + i) % 200));
+                        cache.getById(1 + i % 200);
+                    }
+                }));
+            }
+            for (Future<?> f : done) f.get();
+        }
+
+        MemoryPokemonCache.Stats stats = cache.stats();
+        assertEquals(64, stats.entries());
+        assertEquals((long) threads * rounds, stats.hits() + stats.misses());
+
+        // el tamaño acumulado cuadra con el de las entradas que quedan: ningún put ni expulsión se pisó
+        List<Integer> all = new ArrayList<>();
+        for (int id = 1; id <= 200; id++) all.add(id);
+        MemoryPokemonCache same = new MemoryPokemonCache(64, Long.MAX_VALUE);
+        cache.getByIds(all).values().forEach(same::put);
+        assertEquals(same.stats().bytes(), stats.bytes());
+    }
+
+    private static Pokemon mon(int id) {
+        return new Pokemon(id, "Mon" + id, Generation.GEN_1, List.of(Type.NORMAL), new Stats(1, 1, 1, 1, 1, 1), null);
+    }
+}
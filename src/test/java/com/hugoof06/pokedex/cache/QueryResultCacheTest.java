@@ -0,0 +1,41 @@
+package com.hugoof06.pokedex.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryResultCacheTest {
+
+    @Test
+    void keepsAtMostMaxEntriesDroppingTheLeastUsed() {
+        QueryResultCache cache = new QueryResultCache(Duration.ofMinutes(1), 3);
+        cache.putNames("a", List.of("pikachu"));
+        cache.putNames("b", List.of("eevee"));
+        cache.putIds("c", List.of(1, 2), 2);
+        cache.names("a"); // "a" pasa a ser la más usada: la que sobra es "b"
+        cache.putNames("d", List.of("mew"));
+
+        assertEquals(3, cache.size());
+        assertTrue(cache.names("b").isEmpty());
+        assertEquals(List.of("pikachu"), cache.names("a").orElseThrow());
+        assertEquals(List.of("mew"), cache.names("d").orElseThrow());
+
+        // cada búsqueda distinta es una clave nueva: el tamaño no pasa del límite
+        for (int i = 0; i < 100; i++) cache.putNames("search:" + i, List.of());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void expiredEntriesAreMisses() {
+        QueryResultCache cache = new QueryResultCache(Duration.ZERO, 10);
+        cache.putIds("gen1:p1", List.of(1, 2, 3), 3);
+
+        assertTrue(cache.ids("gen1:p1").isEmpty());
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.misses());
+    }
+}
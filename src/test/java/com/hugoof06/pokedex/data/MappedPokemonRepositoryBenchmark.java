@@ -0,0 +1,76 @@
+package com.hugoof06.pokedex.data;
+
+import com.hugoof06.pokedex.model.Generation;
+import com.hugoof06.pokedex.model.Pokemon;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Prueba de capacidad de {@link MappedPokemonRepository} con una pokédex sintética reproducible (ver
+ * {@link MappedPokemonRepositoryTest#syntheticDex}): tamaño del fichero, tiempo de generarlo y de abrirlo,
+ * heap usado con él abierto y coste de las búsquedas por id, por nombre y de una página.
+ *
+ * No es un test (no corre en mvn test). Se lanza con:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.hugoof06.pokedex.data.MappedPokemonRepositoryBenchmark [-Dexec.args="tamaño semilla"]
+ */
+public final class MappedPokemonRepositoryBenchmark {
+
+    private static final int LOOKUPS = 200_000;
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+        Path file = Files.createTempFile("pokedex-capacity", ".bin");
+        try {
+            List<Pokemon> dex = MappedPokemonRepositoryTest.syntheticDex(n, seed);
+            long t0 = System.nanoTime();
+            MappedPokemonRepository.write(dex, file);
+            long writeMs = (System.nanoTime() - t0) / 1_000_000;
+            dex = null; // que el heap medido sea solo el del repositorio
+
+            System.gc();
+            long heapBefore = usedHeap();
+            t0 = System.nanoTime();
+            MappedPokemonRepository repo = new MappedPokemonRepository(file);
+            long openMicros = (System.nanoTime() - t0) / 1_000;
+            System.gc();
+            long heapAfter = usedHeap();
+
+            System.out.printf("%d Pokémon sintéticos (semilla %d): fichero de %d MB, generado en %d ms%n",
+                    repo.size(), seed, Files.size(file) >> 20, writeMs);
+            System.out.printf("abierto en %d µs, %d KB de heap con él abierto%n",
+                    openMicros, Math.max(0, heapAfter - heapBefore) >> 10);
+
+            Random rnd = new Random(seed);
+            long found = 0;
+            t0 = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) found += repo.findById(1 + rnd.nextInt(n)).isPresent() ? 1 : 0;
+            System.out.printf("findById:   %6.0f ns de media (%d encontrados)%n",
+                    (System.nanoTime() - t0) / (double) LOOKUPS, found);
+
+            found = 0;
+            t0 = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) found += repo.findByName("synth" + (1 + rnd.nextInt(n))).isPresent() ? 1 : 0;
+            System.out.printf("findByName: %6.0f ns de media (%d encontrados)%n",
+                    (System.nanoTime() - t0) / (double) LOOKUPS, found);
+
+            t0 = System.nanoTime();
+            Page<Pokemon> page = repo.listAfter(Generation.GEN_9, 0, 20);
+            System.out.printf("listAfter de la última generación: %d µs (%d elementos)%n",
+                    (System.nanoTime() - t0) / 1_000, page.items().size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
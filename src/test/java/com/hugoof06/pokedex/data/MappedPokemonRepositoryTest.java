@@ -0,0 +1,190 @@
+package com.hugoof06.pokedex.data;
+
+import com.hugoof06.pokedex.model.Generation;
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stats;
+import com.hugoof06.pokedex.model.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedPokemonRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Pokédex sintética reproducible (misma semilla, mismos datos) para pruebas de capacidad: ids 1..n
+     * repartidos por generaciones en bloques, uno o dos tipos, stats en todo el rango 0..255 y sin sprite
+     * uno de cada siete.
+     */
+    static List<Pokemon> syntheticDex(int n, long seed) {
+        Random rnd = new Random(seed);
+        Type[] types = Type.values();
+        Generation[] gens = Generation.values();
+        List<Pokemon> dex = new ArrayList<>(n);
+        for (int id = 1; id <= n; id++) {
+            Generation gen = gens[(int) ((id - 1L) * gens.length / n)];
+            Type first = types[rnd.nextInt(types.length)];
+            Type second = types[rnd.nextInt(types.length)];
+            List<Type> t = rnd.nextBoolean() || first == second ? List.of(first) : List.of(first, second);
+            Stats s = new Stats(rnd.nextInt(256), rnd.nextInt(256), rnd.nextInt(256),
+                    rnd.nextInt(256), rnd.nextInt(256), rnd.nextInt(256));
+            String sprite = id % 7 == 0 ? null : "https://img.example/" + id + ".png";
+            dex.add(new Pokemon(id, "Synth" + id, gen, t, s, sprite));
+        }
+        return dex;
+    }
+
+    @Test
+    void syntheticDexRoundTrips() throws IOException {
+        List<Pokemon> dex = syntheticDex(5_000, 3);
+        MappedPokemonRepository repo = written(dex.reversed(), 0); // el orden de entrada no importa
+
+        assertEquals(dex.size(), repo.size());
+        assertEquals(dex, repo.findAll());
+        for (Pokemon p : dex) {
+            assertEquals(p, repo.findById(p.getId()).orElseThrow());
+            assertEquals(p.getId(), repo.findByName(p.getName().toUpperCase()).orElseThrow().getId());
+        }
+        assertTrue(repo.findById(0).isEmpty());
+        assertTrue(repo.findById(dex.size() + 1).isEmpty());
+        assertTrue(repo.findByName("Synth0").isEmpty());
+    }
+
+    @Test
+    void nullSpriteStaysNull() throws IOException {
+        MappedPokemonRepository repo = written(List.of(mon(1, "nosprite", null), mon(2, "empty", "")), 0);
+
+        assertNull(repo.findById(1).orElseThrow().getSpriteUrl());
+        assertEquals("", repo.findById(2).orElseThrow().getSpriteUrl());
+    }
+
+    @Test
+    void findByNameFollowsHashCollisions() throws IOException {
+        // mismo hashCode dos a dos ("an"/"c0", "bo"/"d1"... colisionan): caen en la misma casilla y hay
+        // que seguir sondeando
+        assertEquals("unown-an".hashCode(), "unown-c0".hashCode());
+        assertEquals("unown-bo".hashCode(), "unown-d1".hashCode());
+        assertEquals("unown-cp".hashCode(), "unown-e2".hashCode());
+        MappedPokemonRepository repo = written(List.of(mon(1, "Unown-AN", null), mon(2, "unown-c0", null),
+                mon(3, "unown-bo", null), mon(4, "Unown-D1", null), mon(5, "unown-cp", null)), 0);
+
+        assertEquals(1, repo.findByName("unown-an").orElseThrow().getId());
+        assertEquals(2, repo.findByName("UNOWN-C0").orElseThrow().getId());
+        assertEquals(3, repo.findByName("unown-bo").orElseThrow().getId());
+        assertEquals(4, repo.findByName(" unown-d1 ").orElseThrow().getId());
+        assertEquals(5, repo.findByName("unown-cp").orElseThrow().getId());
+        // comparte casilla con "unown-cp" pero no está
+        assertTrue(repo.findByName("unown-e2").isEmpty());
+    }
+
+    @Test
+    void listAfterAtTheBoundaries() throws IOException {
+        List<Pokemon> dex = new ArrayList<>();
+        for (int id = 10; id <= 50; id += 10) dex.add(mon(id, "Mon" + id, null));
+        dex.add(new Pokemon(60, "Other", Generation.GEN_2, List.of(Type.NORMAL), new Stats(1, 1, 1, 1, 1, 1), null));
+        MappedPokemonRepository repo = written(dex, 0);
+
+        Page<Pokemon> first = repo.listAfter(Generation.GEN_1, 0, 2);
+        assertEquals(List.of(10, 20), ids(first));
+        assertEquals(20, first.nextAfterId());
+
+        // un id que no existe sigue valiendo como cursor
+        assertEquals(List.of(30, 40), ids(repo.listAfter(Generation.GEN_1, 25, 2)));
+
+        // la última página llena: detrás solo hay otra generación, así que no hay más
+        Page<Pokemon> last = repo.listAfter(Generation.GEN_1, 30, 2);
+        assertEquals(List.of(40, 50), ids(last));
+        assertEquals(Page.END, last.nextAfterId());
+
+        Page<Pokemon> past = repo.listAfter(Generation.GEN_1, 50, 2);
+        assertTrue(past.items().isEmpty());
+        assertFalse(past.hasNext());
+        assertTrue(repo.listAfter(Generation.GEN_1, 1_000, 2).items().isEmpty());
+
+        assertEquals(List.of(60), ids(repo.listByTypeAfter(Type.NORMAL, Generation.GEN_2, 0, 2)));
+        assertTrue(repo.listByTypeAfter(Type.NORMAL, Generation.GEN_1, 0, 2).items().isEmpty());
+    }
+
+    @Test
+    void pagingThroughASyntheticGenerationSeesEveryoneOnce() throws IOException {
+        List<Pokemon> dex = syntheticDex(2_000, 5);
+        MappedPokemonRepository repo = written(dex, 0);
+
+        List<Pokemon> expected = dex.stream().filter(p -> p.getGeneration() == Generation.GEN_4).toList();
+        List<Pokemon> seen = new ArrayList<>();
+        Page<Pokemon> page = repo.listAfter(Generation.GEN_4, 0, 50);
+        seen.addAll(page.items());
+        while (page.hasNext()) {
+            page = repo.listAfter(Generation.GEN_4, page.nextAfterId(), 50);
+            seen.addAll(page.items());
+        }
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void sourceStampIsReadBack() throws IOException {
+        written(List.of(mon(1, "a", null)), 0x1234_5678_9ABCL);
+        assertEquals(OptionalLong.of(0x1234_5678_9ABCL), MappedPokemonRepository.sourceStamp(dir.resolve("dex.bin")));
+
+        assertEquals(OptionalLong.empty(), MappedPokemonRepository.sourceStamp(dir.resolve("missing.bin")));
+        Path junk = Files.writeString(dir.resolve("junk.bin"), "definitely not a pokedex file");
+        assertEquals(OptionalLong.empty(), MappedPokemonRepository.sourceStamp(junk));
+        Path tiny = Files.writeString(dir.resolve("tiny.bin"), "x");
+        assertEquals(OptionalLong.empty(), MappedPokemonRepository.sourceStamp(tiny));
+    }
+
+    @Test
+    void outOfRangeValuesAreRejected() {
+        Path file = dir.resolve("dex.bin");
+        Stats tooHigh = new Stats(256, 1, 1, 1, 1, 1);
+        Stats negative = new Stats(1, 1, 1, 1, 1, -1);
+        String huge = "x".repeat(MappedPokemonRepository.MAX_STRING_BYTES + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> MappedPokemonRepository.write(
+                List.of(new Pokemon(1, "a", Generation.GEN_1, List.of(Type.NORMAL), tooHigh, null)), file));
+        assertThrows(IllegalArgumentException.class, () -> MappedPokemonRepository.write(
+                List.of(new Pokemon(1, "a", Generation.GEN_1, List.of(Type.NORMAL), negative, null)), file));
+        assertThrows(IllegalArgumentException.class, () -> MappedPokemonRepository.write(List.of(mon(1, huge, null)), file));
+        assertThrows(IllegalArgumentException.class, () -> MappedPokemonRepository.write(List.of(mon(1, "a", huge)), file));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void longestAllowedStringsFit() throws IOException {
+        String longest = "é".repeat(MappedPokemonRepository.MAX_STRING_BYTES / 2); // 2 bytes UTF-8 cada una
+        MappedPokemonRepository repo = written(List.of(mon(1, longest, longest)), 0);
+
+        Pokemon p = repo.findById(1).orElseThrow();
+        assertEquals(longest, p.getName());
+        assertEquals(longest, p.getSpriteUrl());
+    }
+
+    private MappedPokemonRepository written(List<Pokemon> pokemons, long stamp) throws IOException {
+        Path file = dir.resolve("dex.bin");
+        MappedPokemonRepository.write(pokemons, file, stamp);
+        return new MappedPokemonRepository(file);
+    }
+
+    private static Pokemon mon(int id, String name, String sprite) {
+        return new Pokemon(id, name, Generation.GEN_1, List.of(Type.WATER), new Stats(0, 255, 50, 50, 50, 50), sprite);
+    }
+
+    private static List<Integer> ids(Page<Pokemon> page) {
+        return page.items().stream().map(Pokemon::getId).toList();
+    }
+}
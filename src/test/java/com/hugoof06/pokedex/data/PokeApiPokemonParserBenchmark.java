@@ -0,0 +1,84 @@
+package com.hugoof06.pokedex.data;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compara, sobre respuestas de /pokemon grabadas, la lectura en streaming de PokeApiPokemonParser con la
+ * de antes (cuerpo entero a String + readTree). Mide tiempo y bytes asignados por documento.
+ *
+ * No es un test (no corre en mvn test). Se lanza con:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.hugoof06.pokedex.data.PokeApiPokemonParserBenchmark [-Dexec.args=dir]
+ *
+ * Sin argumentos usa el fixture de src/test/resources; con un directorio, todos sus *.json
+ * (p.ej. grabados con: curl -s https://pokeapi.co/api/v2/pokemon/25/ > dir/pokemon-25.json).
+ */
+public final class PokeApiPokemonParserBenchmark {
+
+    private static final int WARMUP = 2_000;
+    private static final int ROUNDS = 5_000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        List<byte[]> docs = args.length > 0 ? load(Path.of(args[0])) : List.of(PokeApiPokemonParserTest.fixture());
+        if (docs.isEmpty()) throw new IOException("No *.json fixtures in " + args[0]);
+
+        long bytes = docs.stream().mapToLong(d -> d.length).sum();
+        System.out.printf("%d documento(s), %d KB de media%n", docs.size(), bytes / docs.size() / 1024);
+
+        var bench = new PokeApiPokemonParserBenchmark();
+        bench.run("readTree ", docs, bench::tree);
+        bench.run("streaming", docs, bench::streaming);
+    }
+
+    private interface Parse {
+        Object apply(byte[] json) throws IOException;
+    }
+
+    /** Como fetchJson: el cuerpo como String y un árbol JsonNode completo del que se leen unos campos. */
+    private Object tree(byte[] json) throws IOException {
+        JsonNode n = mapper.readTree(new String(json, StandardCharsets.UTF_8));
+        return n.get("id").asInt() + n.get("name").asText() + n.get("sprites").get("front_default").asText();
+    }
+
+    private Object streaming(byte[] json) throws IOException {
+        return PokeApiPokemonParser.parse(mapper.getFactory(), new ByteArrayInputStream(json));
+    }
+
+    private void run(String label, List<byte[]> docs, Parse parse) throws IOException {
+        for (int i = 0; i < WARMUP; i++) parse.apply(docs.get(i % docs.size()));
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().threadId();
+        long alloc0 = threads.getThreadAllocatedBytes(tid);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) parse.apply(docs.get(i % docs.size()));
+        long nanos = System.nanoTime() - t0;
+        long alloc = threads.getThreadAllocatedBytes(tid) - alloc0;
+
+        System.out.printf("%s  %8.1f µs/doc  %8d KB asignados/doc%n",
+                label, nanos / 1e3 / ROUNDS, alloc / ROUNDS / 1024);
+    }
+
+    private static List<byte[]> load(Path dir) throws IOException {
+        List<byte[]> docs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path f : files.filter(p -> p.toString().endsWith(".json")).sorted().toList()) {
+                docs.add(Files.readAllBytes(f));
+            }
+        }
+        return docs;
+    }
+}
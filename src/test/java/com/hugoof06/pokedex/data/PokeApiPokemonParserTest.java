@@ -0,0 +1,63 @@
+package com.hugoof06.pokedex.data;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hugoof06.pokedex.data.PokeApiPokemonParser.PokemonDoc;
+import com.hugoof06.pokedex.model.Type;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PokeApiPokemonParserTest {
+
+    static final String FIXTURE = "/fixtures/pokeapi/pokemon-25.json";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    static byte[] fixture() throws IOException {
+        try (InputStream in = PokeApiPokemonParserTest.class.getResourceAsStream(FIXTURE)) {
+            if (in == null) throw new IOException("Missing fixture " + FIXTURE);
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void readsOnlyTheFieldsWeUse() throws IOException {
+        PokemonDoc d = PokeApiPokemonParser.parse(mapper.getFactory(), new ByteArrayInputStream(fixture()));
+
+        assertEquals(25, d.id());
+        assertEquals("pikachu", d.name());
+        assertEquals(25, d.speciesId());
+        assertEquals(List.of(Type.ELECTRIC), d.types());
+        assertEquals(35, d.stats().getHp());
+        assertEquals(90, d.stats().getSpeed());
+        // el front_default de primer nivel, no los de sprites.other / sprites.versions
+        assertEquals("https://raw.githubusercontent.com/PokeAPI/sprites/master/sprites/pokemon/front_default/25.png",
+                d.spriteUrl());
+    }
+
+    @Test
+    void sameResultAsTheJsonTree() throws IOException {
+        byte[] json = fixture();
+        PokemonDoc d = PokeApiPokemonParser.parse(mapper.getFactory(), new ByteArrayInputStream(json));
+        var tree = mapper.readTree(json);
+
+        assertEquals(tree.get("id").asInt(), d.id());
+        assertEquals(tree.get("name").asText(), d.name());
+        assertEquals(tree.get("sprites").get("front_default").asText(), d.spriteUrl());
+        assertEquals(tree.get("stats").get(1).get("base_stat").asInt(), d.stats().getAttack());
+    }
+
+    @Test
+    void rejectsDocumentsWithoutId() {
+        byte[] json = "{\"name\":\"pikachu\",\"moves\":[]}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IOException.class,
+                () -> PokeApiPokemonParser.parse(mapper.getFactory(), new ByteArrayInputStream(json)));
+    }
+}
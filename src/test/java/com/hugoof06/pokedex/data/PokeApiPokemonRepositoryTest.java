@@ -0,0 +1,152 @@
+package com.hugoof06.pokedex.data;
+
+import com.hugoof06.pokedex.model.Generation;
+import com.hugoof06.pokedex.model.Pokemon;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PokeApiPokemonRepositoryTest {
+
+    @TempDir
+    Path dataDir;
+
+    private PokeApiStub stub;
+
+    @AfterEach
+    void stopStub() {
+        if (stub != null) stub.close();
+    }
+
+    @Test
+    void neverMoreRequestsInFlightThanTheLimit() throws Exception {
+        stub = new PokeApiStub(12, 40);
+        PokeApiPokemonRepository repo = new PokeApiPokemonRepository(stub.baseUrl(), 2, dataDir);
+
+        List<Pokemon> all = repo.findAll(Generation.GEN_1);
+
+        assertEquals(12, all.size());
+        assertEquals(1, all.get(0).getId());
+        // el cuerpo llega en dos mitades: si el permiso se soltara antes de leerlo entero habría más de 2
+        assertEquals(2, stub.peakInFlight());
+    }
+
+    @Test
+    void concurrentLookupsOfTheSameIdShareOneRequest() throws Exception {
+        stub = new PokeApiStub(10, 150);
+        PokeApiPokemonRepository repo = new PokeApiPokemonRepository(stub.baseUrl(), 8, dataDir);
+
+        List<Callable<Optional<Pokemon>>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) calls.add(() -> repo.findById(5));
+        List<Optional<Pokemon>> results = allAtOnce(calls);
+
+        for (Optional<Pokemon> p : results) assertEquals("Mon5", p.orElseThrow().getName());
+        assertEquals(1, stub.hits("/pokemon/5/"));
+        assertTrue(repo.coalescedLookups() > 0);
+    }
+
+    @Test
+    void lookupByNameAndByIdShareOneRequest() throws Exception {
+        stub = new PokeApiStub(10, 150);
+        PokeApiPokemonRepository repo = new PokeApiPokemonRepository(stub.baseUrl(), 8, dataDir);
+        // el listado de la generación enseña al repositorio qué id tiene cada nombre
+        repo.searchSpeciesNames(Generation.GEN_1, "mon", 0, 20);
+
+        List<Optional<Pokemon>> results = allAtOnce(List.of(
+                () -> repo.findByName("mon7"),
+                () -> repo.findById(7),
+                () -> repo.findByName("MON7")));
+
+        for (Optional<Pokemon> p : results) assertEquals(7, p.orElseThrow().getId());
+        assertEquals(1, stub.hits("/pokemon/7/"));
+        assertEquals(0, stub.hits("/pokemon/mon7/"));
+        assertTrue(repo.coalescedRequests() > 0);
+    }
+
+    @Test
+    void staleReferenceIsRevalidatedWithItsEtag() throws Exception {
+        stub = new PokeApiStub(10, 0);
+        String gen1 = "/generation/1/";
+
+        // maxAge 0: la entrada guardada caduca al momento y la siguiente lectura tiene que revalidar
+        List<Pokemon> first = new PokeApiPokemonRepository(stub.baseUrl(), 8, dataDir, Duration.ZERO)
+                .list(Generation.GEN_1, 0, 5);
+        // otra instancia sobre el mismo dataDir: nada en memoria, solo la caché en disco
+        List<Pokemon> second = new PokeApiPokemonRepository(stub.baseUrl(), 8, dataDir, Duration.ZERO)
+                .list(Generation.GEN_1, 0, 5);
+
+        assertEquals(first, second);
+        assertEquals(5, second.size());
+        // solo la primera se descarga entera; las demás (también la del mapa de generaciones) son 304
+        List<PokeApiStub.Exchange> seen = stub.exchanges(gen1);
+        assertTrue(seen.size() >= 2);
+        assertEquals(new PokeApiStub.Exchange(gen1, null, 200), seen.get(0));
+        for (PokeApiStub.Exchange e : seen.subList(1, seen.size())) {
+            assertEquals(new PokeApiStub.Exchange(gen1, PokeApiStub.ETAG, 304), e);
+        }
+    }
+
+    @Test
+    void savedNameIndexIsReusedWhileTheGenerationIsUnchanged() throws Exception {
+        stub = new PokeApiStub(10, 0);
+        String gen1 = "/generation/1/";
+        List<String> first = new PokeApiPokemonRepository(stub.baseUrl(), 8, dataDir)
+                .searchSpeciesNames(Generation.GEN_1, "mon1", 0, 20);
+
+        // respuesta aún fresca: el índice de disco vale sin ir a la red
+        List<String> fresh = new PokeApiPokemonRepository(stub.baseUrl(), 8, dataDir)
+                .searchSpeciesNames(Generation.GEN_1, "mon1", 0, 20);
+        assertEquals(first, fresh);
+        assertEquals(1, stub.exchanges(gen1).size());
+
+        // caducada: se revalida, vuelve 304 y el índice sigue valiendo
+        List<String> revalidated = new PokeApiPokemonRepository(stub.baseUrl(), 8, dataDir, Duration.ZERO)
+                .searchSpeciesNames(Generation.GEN_1, "mon1", 0, 20);
+        assertEquals(first, revalidated);
+        assertEquals(304, stub.exchanges(gen1).get(1).status());
+    }
+
+    @Test
+    void savedNameIndexIsRebuiltWhenTheGenerationChanges() throws Exception {
+        stub = new PokeApiStub(10, 0);
+        assertEquals(List.of("mon1", "mon10"), new PokeApiPokemonRepository(stub.baseUrl(), 8, dataDir, Duration.ZERO)
+                .searchSpeciesNames(Generation.GEN_1, "mon1", 0, 20));
+
+        stub.change(12, "\"v2\"");
+        assertEquals(List.of("mon1", "mon10", "mon11", "mon12"),
+                new PokeApiPokemonRepository(stub.baseUrl(), 8, dataDir, Duration.ZERO)
+                        .searchSpeciesNames(Generation.GEN_1, "mon1", 0, 20));
+    }
+
+    /** Lanza todas las llamadas a la vez (cada una en su hilo) y espera sus resultados. */
+    private static <T> List<T> allAtOnce(List<Callable<T>> calls) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Callable<T> c : calls) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return c.call();
+                }));
+            }
+            start.countDown();
+            List<T> out = new ArrayList<>();
+            for (Future<T> f : futures) out.add(f.get());
+            return out;
+        }
+    }
+}
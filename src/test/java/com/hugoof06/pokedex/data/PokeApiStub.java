@@ -0,0 +1,185 @@
+package com.hugoof06.pokedex.data;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PokeAPI de mentira en localhost para los tests del repositorio.
+ *
+ * - /generation/1/ tiene las especies 1..{@code species} ("mon1", "mon2"...); el resto de generaciones, ninguna.
+ *   Los /generation llevan ETag y devuelven 304 si llega su If-None-Match; {@link #change} simula una
+ *   nueva versión de la API (otro número de especies y otro ETag).
+ * - /pokemon/{id o nombre}/ y /pokemon-species/{id}/ para esas especies; lo demás, 404.
+ *
+ * Cada respuesta tarda {@code latencyMs} en llegar y el cuerpo se manda en dos mitades separadas por
+ * otra espera, así se nota si el cliente suelta el permiso de inFlight antes de leerlo entero.
+ * Una petición cuenta como en vuelo hasta justo antes de su último byte.
+ */
+final class PokeApiStub implements AutoCloseable {
+
+    static final String ETAG = "\"v1\"";
+
+    private volatile int species;
+    private volatile String etag = ETAG;
+    private final long latencyMs;
+    private final HttpServer server;
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final List<Exchange> exchanges = new CopyOnWriteArrayList<>();
+
+    /** Lo que ha visto el stub de cada petición. */
+    record Exchange(String path, String ifNoneMatch, int status) {}
+
+    PokeApiStub(int species, long latencyMs) throws IOException {
+        this.species = species;
+        this.latencyMs = latencyMs;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(pool);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    void change(int species, String etag) {
+        this.species = species;
+        this.etag = etag;
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int hits(String path) {
+        AtomicInteger n = hits.get(path);
+        return n == null ? 0 : n.get();
+    }
+
+    int peakInFlight() {
+        return peakInFlight.get();
+    }
+
+    List<Exchange> exchanges(String path) {
+        return exchanges.stream().filter(e -> e.path().equals(path)).toList();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        pool.shutdownNow();
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        hits.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+        boolean counted = true;
+        try (ex) {
+            pause();
+            String ifNoneMatch = ex.getRequestHeaders().getFirst("If-None-Match");
+            String body = body(path);
+            int status = body == null ? 404 : 200;
+
+            if (body != null && path.startsWith("/generation/")) {
+                ex.getResponseHeaders().add("ETag", etag);
+                if (etag.equals(ifNoneMatch)) {
+                    status = 304;
+                    body = null;
+                }
+            }
+            exchanges.add(new Exchange(path, ifNoneMatch, status));
+
+            byte[] out = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+            ex.sendResponseHeaders(status, out.length == 0 ? -1 : out.length);
+            if (out.length > 0) {
+                OutputStream os = ex.getResponseBody();
+                int half = out.length / 2;
+                os.write(out, 0, half);
+                os.flush();
+                pause();
+                inFlight.decrementAndGet();
+                counted = false;
+                os.write(out, half, out.length - half);
+            }
+        } finally {
+            if (counted) inFlight.decrementAndGet();
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String body(String path) {
+        String[] parts = path.replaceAll("^/|/$", "").split("/");
+        if (parts.length != 2) return null;
+        return switch (parts[0]) {
+            case "generation" -> generation(parts[1]);
+            case "pokemon" -> {
+                int id = idOf(parts[1]);
+                yield id < 0 ? null : pokemon(id);
+            }
+            case "pokemon-species" -> {
+                int id = idOf(parts[1]);
+                yield id < 0 ? null : "{\"id\":" + id + ",\"generation\":{\"name\":\"generation-i\",\"url\":\""
+                        + "http://stub/api/v2/generation/1/\"}}";
+            }
+            default -> null;
+        };
+    }
+
+    private String generation(String id) {
+        StringBuilder sb = new StringBuilder("{\"id\":" + id + ",\"pokemon_species\":[");
+        if (id.equals("1")) {
+            // desordenadas, como en la API de verdad
+            for (int i = species; i >= 1; i--) {
+                sb.append("{\"name\":\"mon").append(i).append("\",\"url\":\"http://stub/api/v2/pokemon-species/")
+                        .append(i).append("/\"}");
+                if (i > 1) sb.append(',');
+            }
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String pokemon(int id) {
+        StringBuilder stats = new StringBuilder();
+        String[] names = {"hp", "attack", "defense", "special-attack", "special-defense", "speed"};
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) stats.append(',');
+            stats.append("{\"base_stat\":").append(40 + id + i).append(",\"effort\":0,\"stat\":{\"name\":\"")
+                    .append(names[i]).append("\"}}");
+        }
+        return "{\"id\":" + id + ",\"name\":\"mon" + id + "\","
+                + "\"species\":{\"name\":\"mon" + id + "\",\"url\":\"http://stub/api/v2/pokemon-species/" + id + "/\"},"
+                + "\"sprites\":{\"front_default\":\"http://stub/sprites/" + id + ".png\"},"
+                + "\"types\":[{\"slot\":1,\"type\":{\"name\":\"" + (id % 2 == 0 ? "fire" : "grass") + "\",\"url\":\"u\"}}],"
+                + "\"stats\":[" + stats + "]}";
+    }
+
+    private int idOf(String key) {
+        String n = key.startsWith("mon") ? key.substring(3) : key;
+        try {
+            int id = Integer.parseInt(n);
+            return id >= 1 && id <= species ? id : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
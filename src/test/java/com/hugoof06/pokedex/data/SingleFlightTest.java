@@ -0,0 +1,76 @@
+package com.hugoof06.pokedex.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallsShareOneRun() throws Exception {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() -> flights.run("k", () -> {
+            runs.incrementAndGet();
+            await(release);
+            return 42;
+        }));
+        CompletableFuture<Integer> follower = followerOnceLeaderIsIn(flights, () -> 0);
+        release.countDown();
+
+        assertEquals(42, (int) leader.get(5, TimeUnit.SECONDS));
+        assertEquals(42, (int) follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+        assertEquals(1, flights.coalesced());
+    }
+
+    @Test
+    void errorInTheLeaderReachesTheWaiters() throws Exception {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() -> flights.run("k", () -> {
+            await(release);
+            throw new StackOverflowError("boom");
+        }));
+        CompletableFuture<Integer> follower = followerOnceLeaderIsIn(flights, () -> 0);
+        release.countDown();
+
+        // sin completar el future del líder, el que espera se quedaría colgado para siempre
+        ExecutionException e = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof StackOverflowError);
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+
+        // la clave queda libre
+        assertEquals(7, (int) flights.run("k", () -> 7));
+    }
+
+    /** Lanza una segunda llamada con la misma clave y espera a que se haya sumado a la del líder. */
+    private static CompletableFuture<Integer> followerOnceLeaderIsIn(SingleFlight<String, Integer> flights,
+                                                                    Supplier<Integer> work)
+            throws InterruptedException {
+        while (flights.calls() < 1) Thread.sleep(1);
+        CompletableFuture<Integer> follower = CompletableFuture.supplyAsync(() -> flights.run("k", work));
+        while (flights.coalesced() < 1) Thread.sleep(1);
+        return follower;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
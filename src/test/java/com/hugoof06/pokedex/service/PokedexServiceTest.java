@@ -0,0 +1,72 @@
+package com.hugoof06.pokedex.service;
+
+import com.hugoof06.pokedex.data.PokemonRepository;
+import com.hugoof06.pokedex.model.Generation;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PokedexServiceTest {
+
+    private final Map<Generation, List<String>> names = new EnumMap<>(Generation.class);
+    private final Set<Generation> loaded = EnumSet.noneOf(Generation.class);
+
+    /** Repositorio que solo sabe dar los nombres de cada generación y apunta cuáles se han pedido. */
+    private PokedexService service() {
+        PokemonRepository repo = (PokemonRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{PokemonRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("searchSpeciesNames")) throw new UnsupportedOperationException(method.getName());
+                    Generation gen = (Generation) args[0];
+                    loaded.add(gen);
+                    return names.getOrDefault(gen, List.of());
+                });
+        return new PokedexService(repo);
+    }
+
+    @Test
+    void closerNameInAnotherLoadedGenerationWins() {
+        names.put(Generation.GEN_1, List.of("bulbasaur"));   // a distancia 3
+        names.put(Generation.GEN_2, List.of("bulbasaurrr")); // a distancia 1
+        PokedexService svc = service();
+        svc.suggest("bulbasaurr", 1, Generation.GEN_2); // deja cargados los nombres de la 2
+
+        assertEquals(List.of("bulbasaurrr"), svc.suggest("bulbasaurrrr", 1, Generation.GEN_1));
+    }
+
+    @Test
+    void sameDistancePrefersTheGivenGeneration() {
+        names.put(Generation.GEN_1, List.of("charmandar"));
+        names.put(Generation.GEN_2, List.of("charmandor"));
+        PokedexService svc = service();
+        svc.suggest("x", 1, Generation.GEN_2);
+
+        assertEquals(List.of("charmandar"), svc.suggest("charmander", 1, Generation.GEN_1));
+        assertEquals(List.of("charmandor", "charmandar"), svc.suggest("charmander", 2, Generation.GEN_2));
+    }
+
+    @Test
+    void missInTheGivenGenerationTriesOthers() {
+        names.put(Generation.GEN_1, List.of("pikachu"));
+        names.put(Generation.GEN_2, List.of("chikorita"));
+        PokedexService svc = service();
+
+        assertEquals(List.of("chikorita"), svc.suggest("chikorit", 1, Generation.GEN_1));
+        assertEquals(EnumSet.of(Generation.GEN_1, Generation.GEN_2), loaded);
+    }
+
+    @Test
+    void realMissLoadsABoundedNumberOfGenerations() {
+        for (Generation g : Generation.values()) names.put(g, List.of("pikachu", "eevee"));
+        PokedexService svc = service();
+
+        assertEquals(List.of(), svc.suggest("xyzzy", 1, Generation.GEN_3));
+        assertEquals(1 + PokedexService.SUGGEST_NEW_GENERATIONS, loaded.size());
+    }
+}
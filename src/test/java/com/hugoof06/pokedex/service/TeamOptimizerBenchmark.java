@@ -0,0 +1,43 @@
+package com.hugoof06.pokedex.service;
+
+import com.hugoof06.pokedex.model.Pokemon;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tiempos de {@link TeamOptimizer#best} sobre generaciones sintéticas reproducibles (misma semilla,
+ * mismos datos), para cada tamaño de equipo: mediana y peor de varias pasadas tras calentar.
+ *
+ * No es un test (no corre en mvn test). Se lanza con:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.hugoof06.pokedex.service.TeamOptimizerBenchmark [-Dexec.args="tamaño semilla"]
+ */
+public final class TeamOptimizerBenchmark {
+
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 21;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 151;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        List<Pokemon> pool = TeamOptimizerTest.syntheticGeneration(n, seed);
+        System.out.printf("%d Pokémon sintéticos (semilla %d), %d hilos%n",
+                n, seed, Runtime.getRuntime().availableProcessors());
+
+        for (int size = 1; size <= TeamOptimizer.MAX_TEAM_SIZE; size++) {
+            for (int i = 0; i < WARMUP; i++) TeamOptimizer.best(pool, size);
+
+            long[] micros = new long[ROUNDS];
+            TeamOptimizer.Result last = null;
+            for (int i = 0; i < ROUNDS; i++) {
+                long t0 = System.nanoTime();
+                last = TeamOptimizer.best(pool, size);
+                micros[i] = (System.nanoTime() - t0) / 1_000;
+            }
+            Arrays.sort(micros);
+            System.out.printf("equipo de %d: mediana %7.2f ms, peor %7.2f ms, %9d nodos, cobertura %d/36%n",
+                    size, micros[ROUNDS / 2] / 1e3, micros[ROUNDS - 1] / 1e3, last.nodes(), last.coverage().score());
+        }
+    }
+}
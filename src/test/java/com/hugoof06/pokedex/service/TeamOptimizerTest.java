@@ -0,0 +1,131 @@
+package com.hugoof06.pokedex.service;
+
+import com.hugoof06.pokedex.model.Generation;
+import com.hugoof06.pokedex.model.Pokemon;
+import com.hugoof06.pokedex.model.Stat;
+import com.hugoof06.pokedex.model.Stats;
+import com.hugoof06.pokedex.model.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TeamOptimizerTest {
+
+    /** Generación sintética reproducible: mismos tipos y stats para la misma semilla. */
+    static List<Pokemon> syntheticGeneration(int n, long seed) {
+        Random rnd = new Random(seed);
+        Type[] types = Type.values();
+        List<Pokemon> pool = new ArrayList<>(n);
+        for (int id = 1; id <= n; id++) {
+            Type first = types[rnd.nextInt(types.length)];
+            Type second = types[rnd.nextInt(types.length)];
+            List<Type> t = rnd.nextBoolean() || first == second ? List.of(first) : List.of(first, second);
+            Stats s = new Stats(20 + rnd.nextInt(130), 20 + rnd.nextInt(130), 20 + rnd.nextInt(130),
+                    20 + rnd.nextInt(130), 20 + rnd.nextInt(130), 20 + rnd.nextInt(130));
+            pool.add(new Pokemon(id, "Mon" + id, Generation.GEN_1, t, s, null));
+        }
+        return pool;
+    }
+
+    @Test
+    void sameScoreAsBruteForce() {
+        List<Pokemon> pool = syntheticGeneration(40, 7);
+
+        long best = -1;
+        for (int a = 0; a < pool.size(); a++) {
+            for (int b = a + 1; b < pool.size(); b++) {
+                for (int c = b + 1; c < pool.size(); c++) {
+                    best = Math.max(best, score(List.of(pool.get(a), pool.get(b), pool.get(c))));
+                }
+            }
+        }
+
+        TeamOptimizer.Result result = TeamOptimizer.best(pool, 3);
+        assertEquals(3, result.team().size());
+        assertEquals(best, score(result.team()));
+    }
+
+    @Test
+    void repeatedTypeCombinationsStillFillTheTeam() {
+        List<Pokemon> pool = new ArrayList<>();
+        for (int id = 1; id <= 6; id++) pool.add(mon(id, 50 + id, Type.NORMAL));
+
+        TeamOptimizer.Result result = TeamOptimizer.best(pool, 6);
+        assertEquals(6, result.team().size());
+    }
+
+    @Test
+    void fewerCombinationsThanTeamSlotsSameScoreAsBruteForce() {
+        // 14 Pokémon con solo 3 combinaciones de tipos: el equipo de 5 tiene que repetir alguna
+        List<Pokemon> pool = new ArrayList<>();
+        Random rnd = new Random(3);
+        for (int id = 1; id <= 14; id++) {
+            int total = 20 + rnd.nextInt(130);
+            switch (id % 3) {
+                case 0 -> pool.add(mon(id, total, Type.FIRE));
+                case 1 -> pool.add(mon(id, total, Type.WATER, Type.FLYING));
+                default -> pool.add(mon(id, total, Type.GRASS));
+            }
+        }
+
+        for (int size = 1; size <= 5; size++) {
+            TeamOptimizer.Result result = TeamOptimizer.best(pool, size);
+            assertEquals(size, result.team().size());
+            assertEquals(bruteForce(pool, size), score(result.team()));
+        }
+    }
+
+    @Test
+    void strongerDuplicateWinsOnceCoverageStopsGrowing() {
+        // los dos FIRE aportan lo mismo: a igual cobertura tiene que quedarse el de más stats
+        List<Pokemon> pool = List.of(mon(1, 40, Type.FIRE), mon(2, 140, Type.FIRE), mon(3, 40, Type.FIRE));
+
+        TeamOptimizer.Result result = TeamOptimizer.best(pool, 2);
+        assertEquals(List.of(1, 2), result.team().stream().map(Pokemon::getId).toList());
+    }
+
+    @Test
+    void smallPoolGivesTheWholePool() {
+        List<Pokemon> pool = syntheticGeneration(151, 1).subList(0, 2);
+        assertEquals(2, TeamOptimizer.best(pool, 6).team().size());
+    }
+
+    @Test
+    void rejectsBadSizes() {
+        assertThrows(IllegalArgumentException.class, () -> TeamOptimizer.best(List.of(), 0));
+        assertThrows(IllegalArgumentException.class, () -> TeamOptimizer.best(List.of(), TeamOptimizer.MAX_TEAM_SIZE + 1));
+    }
+
+    private static Pokemon mon(int id, int stat, Type... types) {
+        return new Pokemon(id, "Mon" + id, Generation.GEN_1, List.of(types),
+                new Stats(stat, stat, stat, stat, stat, stat), null);
+    }
+
+    /** Mejor puntuación probando todos los equipos de {@code size} miembros. */
+    private static long bruteForce(List<Pokemon> pool, int size) {
+        return bruteForce(pool, size, 0, new ArrayList<>());
+    }
+
+    private static long bruteForce(List<Pokemon> pool, int size, int from, List<Pokemon> team) {
+        if (team.size() == size) return score(team);
+        long best = -1;
+        for (int i = from; i < pool.size(); i++) {
+            team.add(pool.get(i));
+            best = Math.max(best, bruteForce(pool, size, i + 1, team));
+            team.remove(team.size() - 1);
+        }
+        return best;
+    }
+
+    // mismo criterio que TeamOptimizer: cobertura y, a igualdad, suma de stats
+    private static long score(List<Pokemon> team) {
+        int total = 0;
+        for (Pokemon p : team) total += Stat.TOTAL.of(p.getStats());
+        return ((long) TeamCoverage.of(team).score() << 16) | total;
+    }
+}